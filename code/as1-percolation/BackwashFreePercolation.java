@@ -0,0 +1,184 @@
+import java.util.Arrays;
+
+/**
+ *
+ * Percolation without virtual top and bottom sites. A single weighted
+ * union-find over the N*N sites keeps two status flags on every component
+ * root: whether the component touches the top row and whether it touches
+ * the bottom row. When two components merge the new root takes the union of
+ * both flags.
+ *
+ * isFull() asks whether the root of a site is connected to the top, so
+ * there is no backwash through a virtual bottom site, and percolates() is a
+ * field read that is set the first time a root touches both rows.
+ *
+ * Memory per site is an int parent, a byte rank and a byte status, against
+ * an int grid cell plus two ints of WeightedQuickUnionUF in Percolation, and
+ * no unions are made in the constructor.
+ *
+ */
+public class BackwashFreePercolation {
+
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+
+    private int[] parent;
+    private byte[] rank;
+    private byte[] status;
+    private int size;
+    private boolean percolates;
+
+    public BackwashFreePercolation(int N) {
+        // create N-by-N grid, with all sites blocked
+        if (N <= 0) {
+            throw new java.lang.IllegalArgumentException();
+        }
+        if ((long) N * N > Integer.MAX_VALUE) {
+            throw new java.lang.IllegalArgumentException("grid too large: " + N);
+        }
+
+        size = N;
+        parent = new int[N * N];
+        rank = new byte[N * N];
+        status = new byte[N * N];
+    }
+
+    public void reset() {
+        // block every site again, keeping the arrays for the next trial
+        Arrays.fill(status, (byte) 0);
+        percolates = false;
+    }
+
+    public void open(int i, int j) {
+        // open site (row i, column j) if it is not open already
+        checkBounds(i, j);
+
+        // public use 1,1 api
+        int row = i - 1;
+        int col = j - 1;
+        int site = row * size + col;
+
+        if (status[site] != 0) {
+            return;
+        }
+
+        // a blocked site is in no component, so it is set up on open
+        parent[site] = site;
+        rank[site] = 0;
+        status[site] = OPEN;
+        if (row == 0)        status[site] |= TOP;
+        if (row == size - 1) status[site] |= BOTTOM;
+
+        if (row > 0)        connect(site, site - size);
+        if (row < size - 1) connect(site, site + size);
+        if (col > 0)        connect(site, site - 1);
+        if (col < size - 1) connect(site, site + 1);
+
+        int flags = status[find(site)];
+        if ((flags & TOP) != 0 && (flags & BOTTOM) != 0) {
+            percolates = true;
+        }
+    }
+
+    private void connect(int site, int neighbour) {
+        if (status[neighbour] != 0) {
+            union(site, neighbour);
+        }
+    }
+
+    private int find(int p) {
+        // path halving
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+
+        // link by rank and carry both status flags to the new root
+        byte flags = (byte) (status[rootP] | status[rootQ]);
+        if (rank[rootP] < rank[rootQ]) {
+            parent[rootP] = rootQ;
+            status[rootQ] = flags;
+        } else if (rank[rootP] > rank[rootQ]) {
+            parent[rootQ] = rootP;
+            status[rootP] = flags;
+        } else {
+            parent[rootQ] = rootP;
+            status[rootP] = flags;
+            rank[rootP]++;
+        }
+    }
+
+    private void checkBounds(int i, int j) {
+        if (i < 1 || i > size || j < 1 || j > size) {
+            throw new java.lang.IndexOutOfBoundsException("(" + i + ", " + j + ")");
+        }
+    }
+
+    public boolean isOpen(int i, int j) {
+        // is site (row i, column j) open?
+        checkBounds(i, j);
+        return status[(i - 1) * size + (j - 1)] != 0;
+    }
+
+    public boolean isFull(int i, int j) {
+        // is site (row i, column j) full?
+        checkBounds(i, j);
+        int site = (i - 1) * size + (j - 1);
+        return status[site] != 0 && (status[find(site)] & TOP) != 0;
+    }
+
+    public boolean percolates() {
+        // does the system percolate?
+        return percolates;
+    }
+
+    public static void main(String[] args)  {
+        // test client (optional)
+        BackwashFreePercolation perc = new BackwashFreePercolation(3);
+        assert !perc.percolates();
+
+        perc.open(1, 3);
+        perc.open(2, 3);
+        assert perc.isFull(2, 3);
+        assert !perc.percolates();
+
+        perc.open(3, 3);
+        assert perc.percolates();
+
+        // backwash: (3, 1) touches the bottom row only
+        perc.open(3, 1);
+        assert perc.isOpen(3, 1);
+        assert !perc.isFull(3, 1);
+
+        perc.open(3, 2);
+        assert perc.isFull(3, 1);
+
+        // a single site both touches the top and bottom
+        BackwashFreePercolation one = new BackwashFreePercolation(1);
+        assert !one.percolates();
+        one.open(1, 1);
+        assert one.isFull(1, 1);
+        assert one.percolates();
+
+        // reset blocks every site
+        perc.reset();
+        assert !perc.percolates();
+        assert !perc.isOpen(3, 3);
+        perc.open(1, 1);
+        assert perc.isFull(1, 1);
+        assert !perc.isFull(3, 1);
+
+        System.out.println("Tests passed! :-)");
+    }
+
+}
@@ -0,0 +1,214 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import edu.princeton.cs.algs4.StdRandom;
+import edu.princeton.cs.algs4.StdStats;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ *
+ * Parallel Monte Carlo simulation. Same statistics as PercolationStats but
+ * the T trials are split into contiguous blocks, one block per worker, and
+ * the blocks are run on a fixed thread pool.
+ *
+ * The trials are grouped in chunks of TRIALS_PER_CHUNK, and each chunk
+ * draws from a java.util.Random seeded from the base seed and the chunk
+ * index (StdRandom is a single shared static stream, so it cannot be used
+ * from several threads). A worker runs whole chunks, so the thresholds,
+ * and therefore every statistic, depend on the seed alone and not on the
+ * number of workers.
+ *
+ */
+public class ParallelPercolationStats {
+    private static final int TRIALS_PER_CHUNK = 16;
+
+    private double[] thresholds;
+    private double elapsed;
+
+    public ParallelPercolationStats(int N, int T) {
+        this(N, T, Runtime.getRuntime().availableProcessors(), StdRandom.getSeed());
+    }
+
+    public ParallelPercolationStats(int N, int T, int workers, long seed) {
+        // perform T independent experiments on an N-by-N grid using workers threads
+        if (N <= 0 || T <= 0 || workers <= 0) {
+            throw new java.lang.IllegalArgumentException();
+        }
+
+        workers = Math.min(workers, chunks(T));
+        thresholds = new double[T];
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            run(executor, N, T, workers, seed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public ParallelPercolationStats(int N, int T, ExecutorService executor, int workers, long seed) {
+        // same as above but on a caller supplied executor, which is left running
+        if (N <= 0 || T <= 0 || workers <= 0) {
+            throw new java.lang.IllegalArgumentException();
+        }
+        if (executor == null) {
+            throw new java.lang.NullPointerException();
+        }
+
+        workers = Math.min(workers, chunks(T));
+        thresholds = new double[T];
+        run(executor, N, T, workers, seed);
+    }
+
+    private void run(ExecutorService executor, int N, int T, int workers, long seed) {
+        Stopwatch stopwatch = new Stopwatch();
+
+        // each worker gets a contiguous run of whole chunks
+        int chunks = chunks(T);
+        List<Callable<Void>> blocks = new ArrayList<Callable<Void>>(workers);
+        for (int w = 0; w < workers; w++) {
+            int lo = (int) ((long) chunks * w / workers);
+            int hi = (int) ((long) chunks * (w + 1) / workers);
+            blocks.add(new TrialBlock(N, lo, hi, seed));
+        }
+
+        try {
+            for (Future<Void> future : executor.invokeAll(blocks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.lang.IllegalStateException("interrupted while running trials", e);
+        } catch (ExecutionException e) {
+            throw new java.lang.IllegalStateException("trial failed", e.getCause());
+        }
+
+        elapsed = stopwatch.elapsedTime();
+    }
+
+    private static int chunks(int T) {
+        return (T + TRIALS_PER_CHUNK - 1) / TRIALS_PER_CHUNK;
+    }
+
+    /**
+     *
+     * Derive an independent seed for chunk c by spreading the index with the
+     * 64-bit golden ratio, so neighbouring chunks do not get correlated
+     * streams from java.util.Random's linear congruential generator.
+     *
+     */
+    private static long chunkSeed(long seed, int c) {
+        return seed ^ ((c + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     *
+     * Runs chunks [lo, hi) and writes each threshold into its own slot, so
+     * blocks never share state and need no synchronisation.
+     *
+     */
+    private class TrialBlock implements Callable<Void> {
+        private final int N;
+        private final int lo;
+        private final int hi;
+        private final long seed;
+
+        public TrialBlock(int N, int lo, int hi, long seed) {
+            this.N = N;
+            this.lo = lo;
+            this.hi = hi;
+            this.seed = seed;
+        }
+
+        public Void call() {
+            // one driver per block, so grid and permutation are reused across its
+            // trials, restarted at each chunk as if it were new
+            Random random = new Random();
+            PercolationTrial trial = new PercolationTrial(N, random);
+            for (int c = lo; c < hi; c++) {
+                random.setSeed(chunkSeed(seed, c));
+                trial.restart();
+                int end = Math.min(thresholds.length, (c + 1) * TRIALS_PER_CHUNK);
+                for (int t = c * TRIALS_PER_CHUNK; t < end; t++) {
+                    thresholds[t] = trial.run();
+                }
+            }
+            return null;
+        }
+    }
+
+    public int trials() {
+        // number of trials performed
+        return thresholds.length;
+    }
+
+    public double mean() {
+        // sample mean of percolation threshold
+        return StdStats.mean(thresholds);
+    }
+
+    public double stddev() {
+        // sample standard deviation of percolation threshold
+        return StdStats.stddev(thresholds);
+    }
+
+    public double confidenceLo() {
+        // low  endpoint of 95% confidence interval
+        return mean() - ((1.96 * stddev()) / Math.sqrt(thresholds.length));
+    }
+
+    public double confidenceHi() {
+        // high endpoint of 95% confidence interval
+        return mean() + ((1.96 * stddev()) / Math.sqrt(thresholds.length));
+    }
+
+    public double elapsedTime() {
+        // wall clock seconds spent running the trials
+        return elapsed;
+    }
+
+    public double trialsPerSecond() {
+        // throughput of the whole worker pool
+        if (elapsed == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return thresholds.length / elapsed;
+    }
+
+    public static void main(String[] args) {
+        // java ParallelPercolationStats N T [workers] [seed]
+        int N = Integer.parseInt(args[0]);
+        int T = Integer.parseInt(args[1]);
+        int workers = Runtime.getRuntime().availableProcessors();
+        long seed = StdRandom.getSeed();
+        if (args.length > 2) workers = Integer.parseInt(args[2]);
+        if (args.length > 3) seed = Long.parseLong(args[3]);
+
+        System.out.println("Perform " + T + " trials for a " + N + "x" + N + " grid on " + workers + " workers, seed " + seed);
+        ParallelPercolationStats stats = new ParallelPercolationStats(N, T, workers, seed);
+
+        System.out.println("mean: " + stats.mean());
+        System.out.println("stddev: " + stats.stddev());
+        System.out.println("confidenceLo: " + stats.confidenceLo());
+        System.out.println("confidenceHi: " + stats.confidenceHi());
+        System.out.println("trials/sec: " + stats.trialsPerSecond());
+
+        // same seed and workers must reproduce the same estimate
+        ParallelPercolationStats again = new ParallelPercolationStats(N, T, workers, seed);
+        assert again.mean() == stats.mean() : again.mean() + " != " + stats.mean();
+        assert again.stddev() == stats.stddev();
+
+        // and so must any other number of workers
+        for (int w : new int[] {1, 2, 3, 4}) {
+            ParallelPercolationStats other = new ParallelPercolationStats(N, T, w, seed);
+            assert other.mean() == stats.mean() : w + " workers: " + other.mean() + " != " + stats.mean();
+            assert other.stddev() == stats.stddev();
+        }
+    }
+
+}
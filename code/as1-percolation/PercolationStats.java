@@ -1,4 +1,3 @@
-import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdDraw;
 import edu.princeton.cs.algs4.StdStats;
 
@@ -16,22 +15,12 @@ public class PercolationStats {
         System.out.println(message);
 
         thresholds = new double[T];
+        PercolationTrial trial = new PercolationTrial(N);
 
         for (int t = 0; t < T; t++) {
 
-            Percolation perc = new Percolation(N);
-            int opened = 0;
-
-            while (!perc.percolates()) {
-                int x = StdRandom.uniform(N) + 1;
-                int y = StdRandom.uniform(N) + 1;
-                if (!perc.isOpen(x, y)) {
-                    perc.open(x, y);
-
-                    opened++;
-                }
-            }
-            double threshold = ((double) opened) / (N * N);
+            double threshold = trial.run();
+            int opened = trial.opened();
             thresholds[t] = threshold;
             message = "Finished trial " + t + ", opened " + opened;
             message = message + " sites of " + N*N;
@@ -0,0 +1,131 @@
+import java.util.Random;
+import edu.princeton.cs.algs4.StdRandom;
+
+/**
+ *
+ * Reusable driver for percolation trials on an N-by-N grid.
+ *
+ * Sites are opened in the order of a random permutation of the site ids.
+ * The permutation is produced one step of the Knuth shuffle at a time as
+ * sites are opened, so each opened site costs exactly one random draw and
+ * no draw is ever rejected because it hit an already open site. The
+ * permutation array and the BackwashFreePercolation grid are allocated once
+ * and reset between trials; whatever order the array is left in is as good
+ * a starting point for the next shuffle as the identity.
+ *
+ * A driver is not thread safe; parallel runners create one per worker and
+ * give each its own Random.
+ *
+ */
+public class PercolationTrial {
+    private int size;
+    private int[] sites;
+    private BackwashFreePercolation perc;
+    private Random random;
+    private int opened;
+
+    public PercolationTrial(int N) {
+        // trials drawing from StdRandom
+        this(N, null);
+    }
+
+    public PercolationTrial(int N, Random random) {
+        // trials drawing from random, or from StdRandom if random is null
+        if (N <= 0) {
+            throw new java.lang.IllegalArgumentException();
+        }
+
+        size = N;
+        perc = new BackwashFreePercolation(N);
+        this.random = random;
+
+        sites = new int[N * N];
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = i;
+        }
+    }
+
+    /**
+     *
+     * Open sites in random order until the grid percolates.
+     *
+     * @return fraction of sites open when the grid first percolates.
+     *
+     */
+    public double run() {
+        perc.reset();
+        opened = 0;
+
+        while (!perc.percolates()) {
+            // next step of the Knuth shuffle picks from the unopened tail
+            int r = opened + uniform(sites.length - opened);
+            int site = sites[r];
+            sites[r] = sites[opened];
+            sites[opened] = site;
+            opened++;
+
+            perc.open(site / size + 1, site % size + 1);
+        }
+        return ((double) opened) / sites.length;
+    }
+
+    /**
+     *
+     * Put the permutation back to the identity, so the trials that follow
+     * depend only on the draws from the random source and not on the trials
+     * run before.
+     *
+     */
+    public void restart() {
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = i;
+        }
+    }
+
+    private int uniform(int n) {
+        if (random == null) {
+            return StdRandom.uniform(n);
+        }
+        return random.nextInt(n);
+    }
+
+    public int opened() {
+        // number of sites opened by the last run
+        return opened;
+    }
+
+    public static void main(String[] args) {
+        // unit testing
+        PercolationTrial trial = new PercolationTrial(1);
+        assert trial.run() == 1.0;
+        assert trial.opened() == 1;
+
+        trial = new PercolationTrial(20, new Random(42));
+        for (int t = 0; t < 100; t++) {
+            double threshold = trial.run();
+            assert threshold > 0 && threshold <= 1;
+            assert trial.opened() >= 20;
+        }
+
+        // same seed, same sequence of thresholds
+        PercolationTrial a = new PercolationTrial(50, new Random(7));
+        PercolationTrial b = new PercolationTrial(50, new Random(7));
+        for (int t = 0; t < 10; t++) {
+            assert a.run() == b.run();
+        }
+
+        // after a restart, a reseeded driver repeats a fresh one
+        Random random = new Random(7);
+        PercolationTrial c = new PercolationTrial(50, random);
+        c.run();
+        random.setSeed(7);
+        c.restart();
+        b = new PercolationTrial(50, new Random(7));
+        for (int t = 0; t < 10; t++) {
+            assert c.run() == b.run();
+        }
+
+        System.out.println("Tests passed! :-)");
+    }
+
+}
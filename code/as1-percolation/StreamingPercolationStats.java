@@ -0,0 +1,91 @@
+/**
+ *
+ * Streaming percolation threshold estimator. Instead of storing every
+ * threshold like PercolationStats, the mean and the sum of squared
+ * deviations are updated online after each trial (Welford's method), so
+ * memory is O(1) in the number of trials.
+ *
+ * Trials stop as soon as the 95% confidence interval is narrower than the
+ * requested width, or when maxTrials have been run. At least MIN_TRIALS are
+ * always run because the 1.96 normal approximation is meaningless on a
+ * handful of samples.
+ *
+ */
+public class StreamingPercolationStats {
+
+    public static final int MIN_TRIALS = 30;
+
+    private int trials;
+    private double mean;
+    private double m2;
+
+    public StreamingPercolationStats(int N, double width, int maxTrials) {
+        // run experiments on an N-by-N grid until the confidence interval is narrower than width
+        if (N <= 0 || maxTrials <= 0 || !(width > 0)) {
+            throw new java.lang.IllegalArgumentException();
+        }
+
+        PercolationTrial trial = new PercolationTrial(N);
+        while (trials < maxTrials) {
+            add(trial.run());
+            if (trials >= MIN_TRIALS && confidenceHi() - confidenceLo() < width) {
+                break;
+            }
+        }
+    }
+
+    private void add(double threshold) {
+        // Welford update of mean and sum of squared deviations
+        trials++;
+        double delta = threshold - mean;
+        mean += delta / trials;
+        m2 += delta * (threshold - mean);
+    }
+
+    public int trials() {
+        // number of trials actually performed
+        return trials;
+    }
+
+    public double mean() {
+        // sample mean of percolation threshold
+        return mean;
+    }
+
+    public double stddev() {
+        // sample standard deviation of percolation threshold
+        if (trials < 2) {
+            return Double.NaN;
+        }
+        return Math.sqrt(m2 / (trials - 1));
+    }
+
+    public double confidenceLo() {
+        // low  endpoint of 95% confidence interval
+        return mean() - ((1.96 * stddev()) / Math.sqrt(trials));
+    }
+
+    public double confidenceHi() {
+        // high endpoint of 95% confidence interval
+        return mean() + ((1.96 * stddev()) / Math.sqrt(trials));
+    }
+
+    public static void main(String[] args) {
+        // java StreamingPercolationStats N width maxTrials
+        int N = Integer.parseInt(args[0]);
+        double width = Double.parseDouble(args[1]);
+        int maxTrials = Integer.parseInt(args[2]);
+
+        StreamingPercolationStats stats = new StreamingPercolationStats(N, width, maxTrials);
+
+        System.out.println("trials: " + stats.trials());
+        System.out.println("mean: " + stats.mean());
+        System.out.println("stddev: " + stats.stddev());
+        System.out.println("confidenceLo: " + stats.confidenceLo());
+        System.out.println("confidenceHi: " + stats.confidenceHi());
+
+        assert stats.trials() >= Math.min(MIN_TRIALS, maxTrials);
+        assert stats.trials() == maxTrials || stats.confidenceHi() - stats.confidenceLo() < width;
+    }
+
+}
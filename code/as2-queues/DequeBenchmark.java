@@ -0,0 +1,87 @@
+import java.lang.management.ManagementFactory;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ *
+ * Compares the linked Deque against ResizingArrayDeque on a queue heavy
+ * workload: fill with N items at alternating ends, then drain alternating
+ * ends, repeated for a number of rounds after a warm up.
+ *
+ * Reports operations per second and bytes allocated per operation, the
+ * latter from the HotSpot per-thread allocation counter
+ * (com.sun.management.ThreadMXBean); it prints NaN on JVMs without one.
+ *
+ *     java DequeBenchmark [N] [rounds]
+ *
+ */
+public class DequeBenchmark {
+
+    private static final Integer ITEM = 42;
+
+    private static long linked(int N) {
+        Deque<Integer> deque = new Deque<Integer>();
+        long sum = 0;
+        for (int i = 0; i < N; i++) {
+            if ((i & 1) == 0) deque.addFirst(ITEM);
+            else              deque.addLast(ITEM);
+        }
+        for (int i = 0; i < N; i++) {
+            if ((i & 1) == 0) sum += deque.removeFirst();
+            else              sum += deque.removeLast();
+        }
+        return sum;
+    }
+
+    private static long array(int N) {
+        ResizingArrayDeque<Integer> deque = new ResizingArrayDeque<Integer>();
+        long sum = 0;
+        for (int i = 0; i < N; i++) {
+            if ((i & 1) == 0) deque.addFirst(ITEM);
+            else              deque.addLast(ITEM);
+        }
+        for (int i = 0; i < N; i++) {
+            if ((i & 1) == 0) sum += deque.removeFirst();
+            else              sum += deque.removeLast();
+        }
+        return sum;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void report(String name, boolean useArray, int N, int rounds) {
+        long sink = 0;
+
+        // warm up
+        for (int r = 0; r < rounds; r++) {
+            sink += useArray ? array(N) : linked(N);
+        }
+
+        long before = allocatedBytes();
+        Stopwatch stopwatch = new Stopwatch();
+        for (int r = 0; r < rounds; r++) {
+            sink += useArray ? array(N) : linked(N);
+        }
+        double elapsed = stopwatch.elapsedTime();
+        long after = allocatedBytes();
+
+        double ops = 2.0 * N * rounds;
+        double bytesPerOp = before < 0 ? Double.NaN : (after - before) / ops;
+        System.out.printf("%-20s %14.0f ops/sec %8.2f bytes/op   (%d)%n", name, ops / elapsed, bytesPerOp, sink);
+    }
+
+    public static void main(String[] args) {
+        int N = 1000000;
+        int rounds = 20;
+        if (args.length > 0) N = Integer.parseInt(args[0]);
+        if (args.length > 1) rounds = Integer.parseInt(args[1]);
+
+        report("Deque", false, N, rounds);
+        report("ResizingArrayDeque", true, N, rounds);
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ *
+ * Deque of double values. Same API and corner cases as ResizingArrayDeque
+ * (circular buffer, amortized constant time, fail fast iterator) but the
+ * values are stored unboxed in a double[], so adding and removing never
+ * allocates a Double.
+ *
+ * The iterator is a PrimitiveIterator.OfDouble; use nextDouble() to read values
+ * without boxing.
+ *
+ */
+
+
+import java.util.PrimitiveIterator;
+
+
+public class DoubleDeque implements Iterable<Double> {
+
+    private double[] items;
+    private int head = 0;
+    private int size = 0;
+    private int modCount = 0;
+
+    public DoubleDeque() {
+        // construct an empty deque
+        items = new double[2];
+    }
+
+    public boolean isEmpty() {
+        // is the deque empty?
+        return size == 0;
+    }
+
+    public int size() {
+        // return the number of items on the deque
+        return size;
+    }
+
+    private int internalSize() {
+        return items.length;
+    }
+
+    private int index(int offset) {
+        // physical slot of the item offset places from the front
+        int i = head + offset;
+        if (i >= items.length) {
+            i -= items.length;
+        }
+        return i;
+    }
+
+    private void resize(int capacity) {
+        // copy into a new buffer with the front at slot 0
+        double[] copy = new double[capacity];
+        for (int i = 0; i < size; i++) {
+            copy[i] = items[index(i)];
+        }
+        items = copy;
+        head = 0;
+    }
+
+    public void addFirst(double item) {
+        // add the item to the front
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+
+        head = head == 0 ? items.length - 1 : head - 1;
+        items[head] = item;
+        size++;
+        modCount++;
+    }
+
+    public void addLast(double item) {
+        // add the item to the end
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+
+        items[index(size)] = item;
+        size++;
+        modCount++;
+    }
+
+    public double removeFirst() {
+        // remove and return the item from the front
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        double item = items[head];
+        head = index(1);
+        size--;
+        modCount++;
+
+        shrinkIfSparse();
+        return item;
+    }
+
+    public double removeLast() {
+        // remove and return the item from the end
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        double item = items[index(size - 1)];
+        size--;
+        modCount++;
+
+        shrinkIfSparse();
+        return item;
+    }
+
+    private void shrinkIfSparse() {
+        if (items.length > 2 && size <= items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+
+    public PrimitiveIterator.OfDouble iterator() {
+        // return an iterator over items in order from front to end
+        return new DequeIterator();
+    }
+
+    private class DequeIterator implements PrimitiveIterator.OfDouble {
+
+        private int i = 0;
+        private final int expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        public void remove() {
+            throw new java.lang.UnsupportedOperationException();
+        }
+
+        public double nextDouble() {
+
+            if (modCount != expectedModCount) {
+                throw new java.util.ConcurrentModificationException();
+            }
+
+            if (!hasNext()) {
+                throw new java.util.NoSuchElementException();
+            }
+
+            return items[index(i++)];
+        }
+    }
+
+    public static void main(String[] args) {
+        // unit testing
+        DoubleDeque deque = new DoubleDeque();
+        assert deque.isEmpty();
+
+        deque.addFirst(0.5);
+        deque.addFirst(0.25);
+        deque.addLast(0.75);
+        deque.addLast(1.0);
+        assert deque.size() == 4 : deque.size();
+
+        // test iterator
+        double expected = 0.25;
+        PrimitiveIterator.OfDouble it = deque.iterator();
+        while (it.hasNext()) {
+            assert it.nextDouble() == expected;
+            expected += 0.25;
+        }
+        assert expected == 1.25;
+
+        it = deque.iterator();
+        deque.addLast(1.25);
+        try {
+            it.nextDouble();
+            assert false : "expected ConcurrentModificationException";
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+
+        assert deque.removeLast() == 1.25;
+        assert deque.removeFirst() == 0.25;
+        assert deque.removeLast() == 1.0;
+        assert deque.removeFirst() == 0.5;
+        assert deque.removeLast() == 0.75;
+        assert deque.isEmpty();
+        assert deque.internalSize() == 2 : deque.internalSize();
+
+        // wrap around both ends of the buffer many times
+        for (int n = 0; n < 1000; n++) {
+            deque.addFirst(-n / 2.0);
+            deque.addLast(n / 2.0);
+        }
+        for (int n = 999; n >= 0; n--) {
+            assert deque.removeFirst() == -n / 2.0;
+            assert deque.removeLast() == n / 2.0;
+        }
+        assert deque.isEmpty();
+
+        System.out.println("Tests passed! :-)");
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ *
+ * Map from non-negative int keys to int values, for the positions the
+ * randomized queue iterators have swapped. Keys and values are kept in
+ * parallel int[] tables with linear probing, so get() and put() never
+ * allocate; the tables double when they are half full. There is no
+ * remove(): the iterators never look at a position again once it is
+ * taken, so they simply leave its entry behind.
+ *
+ */
+
+
+public class IntIntMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // key + 1 in each slot, 0 for an empty slot
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public IntIntMap() {
+        // construct an empty map
+        keys = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+    }
+
+    public int size() {
+        // number of keys in the map
+        return size;
+    }
+
+    private int slot(int key, int[] table) {
+        // top bits of the key times the 32-bit golden ratio, then probe
+        // linearly
+        int mask = table.length - 1;
+        int i = (key * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+        while (table[i] != 0 && table[i] != key + 1) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     *
+     * @return Value of key, or otherwise if key is not in the map.
+     *
+     */
+    public int get(int key, int otherwise) {
+        int i = slot(key, keys);
+        return keys[i] == 0 ? otherwise : values[i];
+    }
+
+    public void put(int key, int value) {
+        // add key with value, or replace the value of key
+        if (key < 0) {
+            throw new java.lang.IllegalArgumentException();
+        }
+
+        int i = slot(key, keys);
+        if (keys[i] == 0) {
+            if (2 * (size + 1) > keys.length) {
+                resize(2 * keys.length);
+                i = slot(key, keys);
+            }
+            keys[i] = key + 1;
+            size++;
+        }
+        values[i] = value;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j] - 1, keys);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        // unit testing
+        IntIntMap map = new IntIntMap();
+        assert map.size() == 0;
+        assert map.get(0, -1) == -1;
+
+        map.put(0, 5);
+        map.put(7, 0);
+        assert map.get(0, -1) == 5;
+        assert map.get(7, -1) == 0;
+        map.put(0, 6);
+        assert map.get(0, -1) == 6;
+        assert map.size() == 2 : map.size();
+
+        // many keys, past several resizes
+        for (int k = 0; k < 100000; k++) {
+            map.put(k * 3, k);
+        }
+        for (int k = 0; k < 100000; k++) {
+            assert map.get(k * 3, -1) == k : k;
+            assert map.get(k * 3 + 2, -1) == -1 : k;
+        }
+        assert map.size() == 100001 : map.size();
+
+        try {
+            map.put(-1, 0);
+            assert false : "expected IllegalArgumentException";
+        } catch (java.lang.IllegalArgumentException e) {
+            // expected
+        }
+
+        System.out.println("Tests passed! :-)");
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ *
+ * Randomized queue of int values. Same semantics as RandomizedQueue<Integer>
+ * (uniformly random dequeue and sample, independent random order per
+ * iterator) but the values are stored unboxed in a resizing int[], so
+ * enqueue and dequeue never allocate an Integer.
+ *
+ * The iterator is a PrimitiveIterator.OfInt; use nextInt() to read values
+ * without boxing.
+ *
+ */
+
+
+import java.util.PrimitiveIterator;
+import edu.princeton.cs.algs4.StdRandom;
+
+
+public class IntRandomizedQueue implements Iterable<Integer> {
+
+    private int[] queue;
+    private int size;
+    private int modCount;
+
+    public IntRandomizedQueue() {
+        // construct an empty randomized queue
+        queue = new int[2];
+    }
+
+    public boolean isEmpty() {
+        // is the queue empty?
+        return size == 0;
+    }
+
+    public int size() {
+        // return the number of items on the queue
+        return size;
+    }
+
+    private int internalSize() {
+        return queue.length;
+    }
+
+    private void resize(int capacity) {
+        int[] copy = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            copy[i] = queue[i];
+        }
+        queue = copy;
+    }
+
+    public void enqueue(int item) {
+        // grow if necessary
+        if (size == queue.length) {
+            resize(2 * queue.length);
+        }
+
+        // add the item to the end
+        queue[size++] = item;
+        modCount++;
+    }
+
+    public int dequeue() {
+        // remove and return a random item
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        // move the last item into the slot of the random one
+        int random_i = StdRandom.uniform(size);
+        int item = queue[random_i];
+        queue[random_i] = queue[size - 1];
+        size--;
+        modCount++;
+
+        // shrink if necessary
+        if (queue.length > 2 && size <= queue.length / 4) {
+            resize(queue.length / 2);
+        }
+
+        return item;
+    }
+
+    public int sample() {
+        // return (but do not remove) a random item
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        return queue[StdRandom.uniform(size)];
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        // return an independent iterator over items in random order
+        return new RandomizedQueueIterator();
+    }
+
+    /**
+     *
+     * Lazy Knuth shuffle over an IntIntMap of swapped positions, as in
+     * RandomizedQueue, so nextInt() neither boxes nor allocates outside the
+     * map's occasional resize. Fail fast like RandomizedQueue's iterator.
+     *
+     */
+    private class RandomizedQueueIterator implements PrimitiveIterator.OfInt {
+        private int i = 0;
+        private final int n = size;
+        private final int expectedModCount = modCount;
+        private final IntIntMap swapped = new IntIntMap();
+
+        public boolean hasNext() {
+            return i < n;
+        }
+
+        public void remove() {
+            throw new java.lang.UnsupportedOperationException();
+        }
+
+        public int nextInt() {
+
+            if (modCount != expectedModCount) {
+                throw new java.util.ConcurrentModificationException();
+            }
+
+            if (!hasNext()) {
+                throw new java.util.NoSuchElementException();
+            }
+
+            int r = i + StdRandom.uniform(n - i);
+            int index = swapped.get(r, r);
+            if (r != i) {
+                swapped.put(r, swapped.get(i, i));
+            }
+            i++;
+            return queue[index];
+        }
+    }
+
+    public static void main(String[] args) {
+        // unit testing
+        IntRandomizedQueue rqueue = new IntRandomizedQueue();
+        assert rqueue.isEmpty();
+
+        rqueue.enqueue(1);
+        rqueue.enqueue(2);
+        assert rqueue.size() == 2;
+        assert rqueue.internalSize() == 2 : rqueue.internalSize();
+
+        rqueue.enqueue(3);
+        assert rqueue.size() == 3;
+        assert rqueue.internalSize() == 4 : rqueue.internalSize();
+
+        // every item exactly once per iteration
+        int seen = 0;
+        PrimitiveIterator.OfInt it = rqueue.iterator();
+        while (it.hasNext()) {
+            seen |= 1 << it.nextInt();
+        }
+        assert seen == 14 : seen;
+
+        // a full pass over a large queue takes every item once
+        IntRandomizedQueue large = new IntRandomizedQueue();
+        for (int k = 0; k < 100000; k++) {
+            large.enqueue(k);
+        }
+        boolean[] taken = new boolean[100000];
+        it = large.iterator();
+        while (it.hasNext()) {
+            int item = it.nextInt();
+            assert !taken[item] : item;
+            taken[item] = true;
+        }
+
+        // modifying the queue invalidates its iterators
+        it = large.iterator();
+        it.nextInt();
+        large.enqueue(-1);
+        try {
+            it.nextInt();
+            assert false : "expected ConcurrentModificationException";
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+
+        int sam = rqueue.sample();
+        assert sam >= 1 && sam <= 3;
+
+        int sum = rqueue.dequeue() + rqueue.dequeue() + rqueue.dequeue();
+        assert sum == 6 : sum;
+        assert rqueue.isEmpty();
+        assert rqueue.internalSize() == 2 : rqueue.internalSize();
+
+        try {
+            rqueue.dequeue();
+            assert false : "expected NoSuchElementException";
+        } catch (java.util.NoSuchElementException e) {
+            // expected
+        }
+
+        System.out.println("Tests passed! :-)");
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ *
+ * Deque of long values. Same API and corner cases as ResizingArrayDeque
+ * (circular buffer, amortized constant time, fail fast iterator) but the
+ * values are stored unboxed in a long[], so adding and removing never
+ * allocates a Long.
+ *
+ * The iterator is a PrimitiveIterator.OfLong; use nextLong() to read values
+ * without boxing.
+ *
+ */
+
+
+import java.util.PrimitiveIterator;
+
+
+public class LongDeque implements Iterable<Long> {
+
+    private long[] items;
+    private int head = 0;
+    private int size = 0;
+    private int modCount = 0;
+
+    public LongDeque() {
+        // construct an empty deque
+        items = new long[2];
+    }
+
+    public boolean isEmpty() {
+        // is the deque empty?
+        return size == 0;
+    }
+
+    public int size() {
+        // return the number of items on the deque
+        return size;
+    }
+
+    private int internalSize() {
+        return items.length;
+    }
+
+    private int index(int offset) {
+        // physical slot of the item offset places from the front
+        int i = head + offset;
+        if (i >= items.length) {
+            i -= items.length;
+        }
+        return i;
+    }
+
+    private void resize(int capacity) {
+        // copy into a new buffer with the front at slot 0
+        long[] copy = new long[capacity];
+        for (int i = 0; i < size; i++) {
+            copy[i] = items[index(i)];
+        }
+        items = copy;
+        head = 0;
+    }
+
+    public void addFirst(long item) {
+        // add the item to the front
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+
+        head = head == 0 ? items.length - 1 : head - 1;
+        items[head] = item;
+        size++;
+        modCount++;
+    }
+
+    public void addLast(long item) {
+        // add the item to the end
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+
+        items[index(size)] = item;
+        size++;
+        modCount++;
+    }
+
+    public long removeFirst() {
+        // remove and return the item from the front
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        long item = items[head];
+        head = index(1);
+        size--;
+        modCount++;
+
+        shrinkIfSparse();
+        return item;
+    }
+
+    public long removeLast() {
+        // remove and return the item from the end
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        long item = items[index(size - 1)];
+        size--;
+        modCount++;
+
+        shrinkIfSparse();
+        return item;
+    }
+
+    private void shrinkIfSparse() {
+        if (items.length > 2 && size <= items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+
+    public PrimitiveIterator.OfLong iterator() {
+        // return an iterator over items in order from front to end
+        return new DequeIterator();
+    }
+
+    private class DequeIterator implements PrimitiveIterator.OfLong {
+
+        private int i = 0;
+        private final int expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        public void remove() {
+            throw new java.lang.UnsupportedOperationException();
+        }
+
+        public long nextLong() {
+
+            if (modCount != expectedModCount) {
+                throw new java.util.ConcurrentModificationException();
+            }
+
+            if (!hasNext()) {
+                throw new java.util.NoSuchElementException();
+            }
+
+            return items[index(i++)];
+        }
+    }
+
+    public static void main(String[] args) {
+        // unit testing
+        LongDeque deque = new LongDeque();
+        assert deque.isEmpty();
+
+        deque.addFirst(2L);
+        deque.addFirst(1L);
+        deque.addLast(3L);
+        deque.addLast(4L);
+        assert deque.size() == 4 : deque.size();
+
+        // test iterator
+        long expected = 1;
+        PrimitiveIterator.OfLong it = deque.iterator();
+        while (it.hasNext()) {
+            assert it.nextLong() == expected++;
+        }
+        assert expected == 5;
+
+        it = deque.iterator();
+        deque.addLast(5L);
+        try {
+            it.nextLong();
+            assert false : "expected ConcurrentModificationException";
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+
+        assert deque.removeLast() == 5L;
+        assert deque.removeFirst() == 1L;
+        assert deque.removeLast() == 4L;
+        assert deque.removeFirst() == 2L;
+        assert deque.removeLast() == 3L;
+        assert deque.isEmpty();
+        assert deque.internalSize() == 2 : deque.internalSize();
+
+        // wrap around both ends of the buffer many times
+        for (long n = 0; n < 1000; n++) {
+            deque.addFirst(-n);
+            deque.addLast(n);
+        }
+        for (long n = 999; n >= 0; n--) {
+            assert deque.removeFirst() == -n;
+            assert deque.removeLast() == n;
+        }
+        assert deque.isEmpty();
+
+        System.out.println("Tests passed! :-)");
+    }
+}
@@ -32,6 +32,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
     private Item[] queue;
     private int size;
+    private int modCount;
 
     public RandomizedQueue() {
         // construct an empty randomized queue
@@ -69,6 +70,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         // add the item to the end
         queue[size] = item;
         size++;
+        modCount++;
     }
 
     private void grow() {
@@ -108,6 +110,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         Item item = queue[size - 1];
         queue[size - 1] = null;
         size--;
+        modCount++;
 
         // shrink if necessary
         if (size <= queue.length / 4) {
@@ -138,28 +141,28 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         return new RandomizedQueueIterator();
     }
 
+    /**
+     *
+     * Iterates in uniformly random order by running the Knuth shuffle one
+     * step per call to next(). The shuffled permutation of indices is never
+     * materialised: only the positions that have been swapped away from
+     * their own index are kept in a sparse map, so construction is constant
+     * time and taking k items costs O(k) time and memory. The map is an
+     * IntIntMap, so next() does not box. Each iterator has its own map and
+     * draws, so concurrent iterators are independent. The iterator reads
+     * the live queue, so it is fail fast: next() throws a
+     * java.util.ConcurrentModificationException if the queue was modified
+     * after the iterator was created.
+     *
+     */
     private class RandomizedQueueIterator implements Iterator<Item> {
         private int i = 0;
-        private Item item;
-        private Item[] new_queue;
-
-        public RandomizedQueueIterator() {
-            new_queue = newGenericArray(size);
-            int j;
-            for (int i = 0; i < size; i++) {
-                j = StdRandom.uniform(i + 1);
-                if (j == i) {
-                    new_queue[i] = queue[i];
-                } else {
-                    new_queue[i] = new_queue[j];
-                    new_queue[j] = queue[i];
-                }
-            }
-
-        }
+        private final int n = size;
+        private final int expectedModCount = modCount;
+        private final IntIntMap swapped = new IntIntMap();
 
         public boolean hasNext() {
-            return i < size;
+            return i < n;
         }
 
         public void remove() {
@@ -168,13 +171,23 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
         public Item next() {
 
+            if (modCount != expectedModCount) {
+                throw new java.util.ConcurrentModificationException();
+            }
+
             if (!hasNext()) {
                 throw new java.util.NoSuchElementException();
             }
 
-            item = new_queue[i];
+            // swap position i with a random position in [i, n) and take it;
+            // position i is never looked at again, so its entry can stay
+            int r = i + StdRandom.uniform(n - i);
+            int index = swapped.get(r, r);
+            if (r != i) {
+                swapped.put(r, swapped.get(i, i));
+            }
             i++;
-            return item;
+            return queue[index];
         }
     }
 
@@ -211,6 +224,37 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             i++;
         }
 
+        // every item exactly once per iteration
+        int seen = 0;
+        for (String s : rqueue) {
+            seen |= 1 << (s.charAt(0) - 'a');
+        }
+        assert seen == 7 : seen;
+
+        // taking a few items from a large queue
+        RandomizedQueue<Integer> large = new RandomizedQueue<Integer>();
+        for (int k = 0; k < 100000; k++) {
+            large.enqueue(k);
+        }
+        Iterator<Integer> it = large.iterator();
+        boolean[] taken = new boolean[100000];
+        for (int k = 0; k < 10; k++) {
+            int item = it.next();
+            assert !taken[item] : item;
+            taken[item] = true;
+        }
+
+        // modifying the queue invalidates its iterators
+        it = large.iterator();
+        it.next();
+        large.dequeue();
+        try {
+            it.next();
+            assert false : "expected ConcurrentModificationException";
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+
         String sam = rqueue.sample();
         System.out.println("Random sample: " + sam);
         assert sam.equals("a") || sam.equals("b") || sam.equals("c");
@@ -0,0 +1,244 @@
+/**
+ *
+ * Resizing array deque. Same API and corner cases as Deque, but the items
+ * live in a circular buffer instead of a doubly linked list, so adding an
+ * item does not allocate a node.
+ *
+ * Performance.
+ *  Each deque operation takes constant amortized time: the buffer doubles
+ * when it is full and halves when it is a quarter full. The iterator is fail
+ * fast: next() throws a java.util.ConcurrentModificationException if the
+ * deque was modified after the iterator was created.
+ *
+ */
+
+
+import java.util.Iterator;
+
+
+public class ResizingArrayDeque<Item> implements Iterable<Item> {
+
+    private Item[] items;
+    private int head = 0;
+    private int size = 0;
+    private int modCount = 0;
+
+    public ResizingArrayDeque() {
+        // construct an empty deque
+        items = newGenericArray(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Item[] newGenericArray(int n) {
+        return (Item[]) new Object[n];
+    }
+
+    public boolean isEmpty() {
+        // is the deque empty?
+        return size == 0;
+    }
+
+    public int size() {
+        // return the number of items on the deque
+        return size;
+    }
+
+    private int internalSize() {
+        return items.length;
+    }
+
+    private int index(int offset) {
+        // physical slot of the item offset places from the front
+        int i = head + offset;
+        if (i >= items.length) {
+            i -= items.length;
+        }
+        return i;
+    }
+
+    private void resize(int capacity) {
+        // copy into a new buffer with the front at slot 0
+        Item[] copy = newGenericArray(capacity);
+        for (int i = 0; i < size; i++) {
+            copy[i] = items[index(i)];
+        }
+        items = copy;
+        head = 0;
+    }
+
+    public void addFirst(Item item) {
+        // add the item to the front
+
+        if (item == null) {
+            throw new java.lang.NullPointerException();
+        }
+
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+
+        head = head == 0 ? items.length - 1 : head - 1;
+        items[head] = item;
+        size++;
+        modCount++;
+    }
+
+    public void addLast(Item item) {
+        // add the item to the end
+
+        if (item == null) {
+            throw new java.lang.NullPointerException();
+        }
+
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+
+        items[index(size)] = item;
+        size++;
+        modCount++;
+    }
+
+    public Item removeFirst() {
+        // remove and return the item from the front
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        Item item = items[head];
+        items[head] = null;
+        head = index(1);
+        size--;
+        modCount++;
+
+        shrinkIfSparse();
+        return item;
+    }
+
+    public Item removeLast() {
+        // remove and return the item from the end
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        int last = index(size - 1);
+        Item item = items[last];
+        items[last] = null;
+        size--;
+        modCount++;
+
+        shrinkIfSparse();
+        return item;
+    }
+
+    private void shrinkIfSparse() {
+        if (items.length > 2 && size <= items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+
+    public Iterator<Item> iterator() {
+        // return an iterator over items in order from front to end
+        return new DequeIterator();
+    }
+
+    private class DequeIterator implements Iterator<Item> {
+
+        private int i = 0;
+        private final int expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        public void remove() {
+            throw new java.lang.UnsupportedOperationException();
+        }
+
+        public Item next() {
+
+            if (modCount != expectedModCount) {
+                throw new java.util.ConcurrentModificationException();
+            }
+
+            if (!hasNext()) {
+                throw new java.util.NoSuchElementException();
+            }
+
+            return items[index(i++)];
+        }
+    }
+
+    public static void main(String[] args) {
+        // unit testing
+        ResizingArrayDeque<String> deque = new ResizingArrayDeque<String>();
+        assert deque.isEmpty();
+        deque.addLast("hi");
+        assert !deque.isEmpty();
+        assert deque.size() == 1;
+        deque.addLast("there");
+        assert deque.size() == 2;
+
+        assert deque.removeFirst().equals("hi");
+        assert deque.removeFirst().equals("there");
+
+        deque.addFirst("b");
+        deque.addFirst("a");
+        deque.addLast("c");
+        deque.addLast("d");
+        assert deque.size() == 4 : deque.size();
+        assert deque.internalSize() == 4 : deque.internalSize();
+
+        // test iterator
+        String[] strings = {"a", "b", "c", "d"};
+        int i = 0;
+        for (String s : deque) {
+            assert s.equals(strings[i]);
+            i++;
+        }
+        assert i == 4;
+
+        // iterator fails fast after a modification
+        Iterator<String> it = deque.iterator();
+        it.next();
+        deque.addLast("e");
+        try {
+            it.next();
+            assert false : "expected ConcurrentModificationException";
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+        assert deque.removeLast().equals("e");
+
+        assert deque.removeLast().equals("d") : deque.size();
+        assert deque.removeLast().equals("c");
+        assert deque.removeLast().equals("b");
+        assert deque.removeLast().equals("a");
+        assert deque.isEmpty();
+        assert deque.internalSize() == 2 : deque.internalSize();
+
+        // wrap around both ends of the buffer many times
+        for (int n = 0; n < 1000; n++) {
+            deque.addFirst("f" + n);
+            deque.addLast("l" + n);
+        }
+        assert deque.size() == 2000;
+        for (int n = 999; n >= 0; n--) {
+            assert deque.removeFirst().equals("f" + n);
+            assert deque.removeLast().equals("l" + n);
+        }
+        assert deque.isEmpty();
+
+        try {
+            deque.removeFirst();
+            assert false : "expected NoSuchElementException";
+        } catch (java.util.NoSuchElementException e) {
+            // expected
+        }
+
+        System.out.println("Tests passed! :-)");
+    }
+}
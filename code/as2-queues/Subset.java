@@ -1,18 +1,122 @@
+import java.util.Iterator;
 import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdRandom;
 
+/**
+ *
+ * Subset client. Reads a sequence of strings from standard input and
+ * prints exactly k of them, uniformly at random.
+ *
+ *     java Subset k < input            enqueue everything on a RandomizedQueue
+ *     java Subset k -stream < input    reservoir sampling in O(k) memory
+ *
+ * k defaults to 3.
+ *
+ */
 public class Subset {
 
-    public static void main(String[] args) {
+    /**
+     *
+     * Enqueue every token and dequeue k of them. Memory grows with the whole
+     * input.
+     *
+     */
+    public static String[] queued(Iterator<String> tokens, int k) {
         RandomizedQueue<String> rqueue = new RandomizedQueue<String>();
 
-        while (!StdIn.isEmpty()) {
-            String item = StdIn.readString();
-            rqueue.enqueue(item);
+        while (tokens.hasNext()) {
+            rqueue.enqueue(tokens.next());
+        }
+
+        String[] sample = new String[Math.min(k, rqueue.size())];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = rqueue.dequeue();
+        }
+        return sample;
+    }
+
+    /**
+     *
+     * Reservoir sampling with Li's Algorithm L: keep the first k tokens, then
+     * jump straight to the next token that enters the reservoir, drawing the
+     * length of each jump from its geometric distribution. Only k tokens are
+     * ever held, and random draws are O(k log(n/k)) rather than one per
+     * token. The reservoir is shuffled before it is returned so the output
+     * order is random too.
+     *
+     */
+    public static String[] reservoir(Iterator<String> tokens, int k) {
+        String[] sample = new String[k];
+
+        int n = 0;
+        while (n < k && tokens.hasNext()) {
+            sample[n++] = tokens.next();
+        }
+
+        if (n < k) {
+            // fewer than k tokens in total
+            String[] all = new String[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = sample[i];
+            }
+            StdRandom.shuffle(all);
+            return all;
+        }
+
+        if (k > 0) {
+            double w = Math.exp(Math.log(random()) / k);
+            while (true) {
+                // number of tokens that do not enter the reservoir
+                long skip = (long) Math.floor(Math.log(random()) / Math.log(1 - w));
+                for (long s = 0; s < skip && tokens.hasNext(); s++) {
+                    tokens.next();
+                }
+                if (!tokens.hasNext()) {
+                    break;
+                }
+                sample[StdRandom.uniform(k)] = tokens.next();
+                w *= Math.exp(Math.log(random()) / k);
+            }
+        }
+
+        StdRandom.shuffle(sample);
+        return sample;
+    }
+
+    private static double random() {
+        // uniform in (0, 1], so its log is finite
+        return 1.0 - StdRandom.uniform();
+    }
+
+    private static class StdInTokens implements Iterator<String> {
+        public boolean hasNext() {
+            return !StdIn.isEmpty();
         }
 
-        System.out.println(rqueue.dequeue());
-        System.out.println(rqueue.dequeue());
-        System.out.println(rqueue.dequeue());
+        public void remove() {
+            throw new java.lang.UnsupportedOperationException();
+        }
 
+        public String next() {
+            return StdIn.readString();
+        }
+    }
+
+    public static void main(String[] args) {
+        int k = 3;
+        boolean stream = false;
+        if (args.length > 0) k = Integer.parseInt(args[0]);
+        if (args.length > 1) stream = args[1].equals("-stream");
+
+        String[] sample;
+        if (stream) {
+            sample = reservoir(new StdInTokens(), k);
+        } else {
+            sample = queued(new StdInTokens(), k);
+        }
+
+        for (String item : sample) {
+            System.out.println(item);
+        }
     }
 }
@@ -0,0 +1,85 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import edu.princeton.cs.algs4.StdRandom;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ *
+ * Throughput of the two Subset strategies, RandomizedQueue against the
+ * reservoir, on M synthetic tokens held in memory so that reading standard
+ * input does not dominate. Also checks that each token is picked with
+ * roughly equal frequency by the reservoir.
+ *
+ *     java SubsetBenchmark [M] [k] [rounds]
+ *
+ */
+public class SubsetBenchmark {
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void report(String name, boolean stream, String[] tokens, int k, int rounds) {
+        long sink = 0;
+
+        // warm up
+        for (int r = 0; r < rounds; r++) {
+            sink += sample(stream, tokens, k).length;
+        }
+
+        long before = allocatedBytes();
+        Stopwatch stopwatch = new Stopwatch();
+        for (int r = 0; r < rounds; r++) {
+            sink += sample(stream, tokens, k).length;
+        }
+        double elapsed = stopwatch.elapsedTime();
+        long after = allocatedBytes();
+
+        double total = (double) tokens.length * rounds;
+        double bytesPerToken = before < 0 ? Double.NaN : (after - before) / total;
+        System.out.printf("%-8s %14.0f tokens/sec %8.2f bytes/token   (%d)%n", name, total / elapsed, bytesPerToken, sink);
+    }
+
+    private static String[] sample(boolean stream, String[] tokens, int k) {
+        if (stream) {
+            return Subset.reservoir(Arrays.asList(tokens).iterator(), k);
+        }
+        return Subset.queued(Arrays.asList(tokens).iterator(), k);
+    }
+
+    public static void main(String[] args) {
+        int M = 5000000;
+        int k = 100;
+        int rounds = 5;
+        if (args.length > 0) M = Integer.parseInt(args[0]);
+        if (args.length > 1) k = Integer.parseInt(args[1]);
+        if (args.length > 2) rounds = Integer.parseInt(args[2]);
+
+        String[] tokens = new String[M];
+        for (int i = 0; i < M; i++) {
+            tokens[i] = Integer.toString(StdRandom.uniform(Integer.MAX_VALUE), 36);
+        }
+
+        report("queued", false, tokens, k, rounds);
+        report("stream", true, tokens, k, rounds);
+
+        // uniformity: each of 10 tokens should be picked about 3/10 of the time
+        String[] ten = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+        int trials = 100000;
+        int[] counts = new int[ten.length];
+        for (int t = 0; t < trials; t++) {
+            for (String s : Subset.reservoir(Arrays.asList(ten).iterator(), 3)) {
+                counts[Integer.parseInt(s)]++;
+            }
+        }
+        for (int i = 0; i < ten.length; i++) {
+            double frequency = (double) counts[i] / trials;
+            assert Math.abs(frequency - 0.3) < 0.01 : i + " picked " + frequency;
+        }
+        System.out.println("reservoir frequencies " + Arrays.toString(counts));
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ *
+ * Work-stealing deque. A lock-free deque after Chase and Lev, "Dynamic
+ * Circular Work-Stealing Deque" (SPAA 2005), for scheduling tasks across
+ * threads.
+ *
+ * One thread, the owner, adds and removes items at the bottom end like a
+ * stack: push() is Deque.addLast() and pop() is Deque.removeLast(). Any
+ * number of other threads, the thieves, take items from the top end with
+ * steal(), which is Deque.removeFirst(). Only the owner may call push() and
+ * pop(); steal(), isEmpty() and size() may be called from any thread.
+ *
+ * Corner cases.
+ *  Throw a java.lang.NullPointerException if the owner pushes a null item.
+ * pop() and steal() return null instead of throwing when there is nothing
+ * to take, because with concurrent thieves an isEmpty() check cannot make a
+ * later removal safe. steal() also returns null when it loses a race for
+ * the top item to the owner or another thief; callers simply try again or
+ * move on to another victim.
+ *
+ * Performance.
+ *  push() and pop() are wait free apart from the amortized doubling of the
+ * circular buffer, and only touch the shared top index when the deque has
+ * at most one item. steal() is one compare-and-set. The buffer never
+ * shrinks, and slots taken by thieves keep their reference until the owner
+ * overwrites them.
+ *
+ */
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+public class WorkStealingDeque<Item> {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    // index of the next item to steal, only ever incremented by compare-and-set
+    private final AtomicLong top = new AtomicLong();
+
+    // index of the next free slot, written only by the owner
+    private volatile long bottom = 0;
+
+    private volatile AtomicReferenceArray<Item> buffer;
+
+    public WorkStealingDeque() {
+        // construct an empty deque
+        buffer = new AtomicReferenceArray<Item>(INITIAL_CAPACITY);
+    }
+
+    public boolean isEmpty() {
+        // is the deque empty? only a snapshot when other threads are active
+        return size() == 0;
+    }
+
+    public int size() {
+        // number of items on the deque, a snapshot when other threads are active
+        long b = bottom;
+        long t = top.get();
+        return (int) Math.max(0, b - t);
+    }
+
+    public void push(Item item) {
+        // owner only: add the item to the bottom
+
+        if (item == null) {
+            throw new java.lang.NullPointerException();
+        }
+
+        long b = bottom;
+        long t = top.get();
+        AtomicReferenceArray<Item> a = buffer;
+        if (b - t >= a.length() - 1) {
+            a = grow(a, b, t);
+            buffer = a;
+        }
+        a.set((int) (b & (a.length() - 1)), item);
+
+        // publishing bottom makes the item visible to thieves
+        bottom = b + 1;
+    }
+
+    private AtomicReferenceArray<Item> grow(AtomicReferenceArray<Item> a, long b, long t) {
+        // copy the live range into a buffer twice the size; thieves still
+        // reading the old buffer see the same items at the same indices
+        AtomicReferenceArray<Item> bigger = new AtomicReferenceArray<Item>(2 * a.length());
+        for (long i = t; i < b; i++) {
+            bigger.set((int) (i & (bigger.length() - 1)), a.get((int) (i & (a.length() - 1))));
+        }
+        return bigger;
+    }
+
+    public Item pop() {
+        // owner only: remove and return the item at the bottom, or null if empty
+
+        long b = bottom - 1;
+        AtomicReferenceArray<Item> a = buffer;
+
+        // claim the bottom slot before looking at top; the volatile write
+        // followed by the volatile read keeps the two from being reordered
+        bottom = b;
+        long t = top.get();
+
+        long size = b - t;
+        if (size < 0) {
+            // empty
+            bottom = t;
+            return null;
+        }
+
+        int slot = (int) (b & (a.length() - 1));
+        Item item = a.get(slot);
+        if (size > 0) {
+            // no thief can reach this slot any more
+            a.set(slot, null);
+            return item;
+        }
+
+        // last item: race any thief for it through top
+        if (!top.compareAndSet(t, t + 1)) {
+            item = null;
+        }
+        bottom = t + 1;
+        return item;
+    }
+
+    public Item steal() {
+        // any thread: remove and return the item at the top, or null if
+        // empty or another thread took it first
+
+        long t = top.get();
+        long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+
+        AtomicReferenceArray<Item> a = buffer;
+        Item item = a.get((int) (t & (a.length() - 1)));
+        if (!top.compareAndSet(t, t + 1)) {
+            return null;
+        }
+        return item;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // unit testing
+        WorkStealingDeque<String> deque = new WorkStealingDeque<String>();
+        assert deque.isEmpty();
+        assert deque.pop() == null;
+        assert deque.steal() == null;
+
+        deque.push("a");
+        deque.push("b");
+        deque.push("c");
+        assert deque.size() == 3 : deque.size();
+        assert deque.pop().equals("c");
+        assert deque.steal().equals("a");
+        assert deque.pop().equals("b");
+        assert deque.isEmpty();
+        assert deque.pop() == null;
+
+        // grow past the initial capacity with items already stolen
+        for (int i = 0; i < 100; i++) deque.push("x" + i);
+        for (int i = 0; i < 10; i++) assert deque.steal().equals("x" + i);
+        for (int i = 100; i < 1000; i++) deque.push("x" + i);
+        assert deque.size() == 990 : deque.size();
+        for (int i = 999; i >= 10; i--) assert deque.pop().equals("x" + i);
+        assert deque.isEmpty();
+
+        // one owner and several thieves: every item is taken exactly once
+        final int N = 1000000;
+        final int THIEVES = 3;
+        final WorkStealingDeque<Integer> work = new WorkStealingDeque<Integer>();
+        final java.util.concurrent.atomic.AtomicIntegerArray taken = new java.util.concurrent.atomic.AtomicIntegerArray(N);
+        final java.util.concurrent.atomic.AtomicInteger count = new java.util.concurrent.atomic.AtomicInteger();
+
+        Thread[] thieves = new Thread[THIEVES];
+        for (int k = 0; k < THIEVES; k++) {
+            thieves[k] = new Thread(new Runnable() {
+                public void run() {
+                    while (count.get() < N) {
+                        Integer item = work.steal();
+                        if (item != null) {
+                            taken.incrementAndGet(item);
+                            count.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            thieves[k].start();
+        }
+
+        for (int i = 0; i < N; i++) {
+            work.push(i);
+            if (i % 3 == 0) {
+                Integer item = work.pop();
+                if (item != null) {
+                    taken.incrementAndGet(item);
+                    count.incrementAndGet();
+                }
+            }
+        }
+        Integer item;
+        while ((item = work.pop()) != null) {
+            taken.incrementAndGet(item);
+            count.incrementAndGet();
+        }
+        for (Thread thief : thieves) {
+            thief.join();
+        }
+
+        assert count.get() == N : count.get();
+        for (int i = 0; i < N; i++) {
+            assert taken.get(i) == 1 : i + " taken " + taken.get(i) + " times";
+        }
+
+        System.out.println("Tests passed! :-)");
+    }
+}
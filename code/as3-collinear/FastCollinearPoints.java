@@ -1,16 +1,60 @@
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdDraw;
-import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 public class FastCollinearPoints {
 
-    private LineSegment[] segments;
+    private SegmentList segments;
     private Point[] points;
-    private Point[] aux;
-    private int size;
     private boolean verbose = false;
 
+    /**
+     *
+     * Growable array of line segments, doubling when full.
+     *
+     */
+    private static class SegmentList implements Consumer<LineSegment> {
+        private LineSegment[] segments = new LineSegment[1];
+        private int size = 0;
+
+        public void accept(LineSegment ls) {
+            add(ls);
+        }
+
+        public void add(LineSegment ls) {
+            resizeArray();
+            segments[size++] = ls;
+        }
+
+        public void addAll(SegmentList that) {
+            for (int i = 0; i < that.size; i++) {
+                add(that.segments[i]);
+            }
+        }
+
+        private void resizeArray () {
+            // resize array
+            if (size == segments.length) {
+                LineSegment[] cp = new LineSegment[segments.length * 2];
+                for (int m = 0; m < segments.length; m++) {
+                    cp[m] = segments[m];
+                }
+                segments = cp;
+            }
+        }
+
+        public LineSegment[] toArray() {
+            LineSegment[] cp = new LineSegment[size];
+            for (int i = 0; i < size; i++) {
+                cp[i] = segments[i];
+            }
+            return cp;
+        }
+    }
+
     /**
      * A faster, sorting-based solution. Remarkably, it is possible to solve the
      * problem much faster than the brute-force solution described above. Given a
@@ -37,168 +81,282 @@ public class FastCollinearPoints {
      */
     public FastCollinearPoints(Point[] points) {
         // finds all line segments containing 4 points
+        this(points, 1);
+    }
 
-        if (points == null) {
-            throw new java.lang.NullPointerException();
+    /**
+     *
+     * Same as above, with the origin points shared out across a fork-join
+     * pool of the given parallelism. Every origin is an independent sort and
+     * scan, so each task sorts in its own scratch arrays and collects its
+     * segments in its own list; the lists are joined in origin order, which
+     * makes segments() identical to the sequential result.
+     *
+     */
+    public FastCollinearPoints(Point[] points, int parallelism) {
+        checkPoints(points);
+        if (parallelism <= 0) {
+            throw new java.lang.IllegalArgumentException();
         }
 
         this.points = points;
-        segments = new LineSegment[1];
-        size = 0;
 
-        // copy to auxillary array for sorting
-        this.aux = new Point[points.length];
-        for (int i = 0; i < points.length; i++) {
-            aux[i] = points[i];
+        if (parallelism == 1) {
+            segments = new SegmentList();
+            Scratch scratch = new Scratch(points.length);
+            for (int i = 0; i < points.length; i++) {
+                findSegments(points[i], scratch, segments);
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                int grain = Math.max(1, points.length / (8 * parallelism));
+                OriginTask all = new OriginTask(0, points.length, grain);
+                pool.invoke(all);
+                segments = all.found;
+            } finally {
+                pool.shutdown();
+            }
         }
+    }
 
+    /**
+     *
+     * Streaming form: hands each maximal segment to the consumer as soon as
+     * it is found, in the same order as segments() would list them, without
+     * keeping any of them. Working memory is proportional to N however many
+     * segments there are. The consumer is called on the calling thread.
+     *
+     * @param  points    The points to search.
+     * @param  consumer  Receives each line segment containing 4 or more points, once.
+     *
+     */
+    public static void forEachSegment(Point[] points, Consumer<LineSegment> consumer) {
+        if (consumer == null) {
+            throw new java.lang.NullPointerException();
+        }
+        new FastCollinearPoints(points, consumer);
+    }
 
-        for (int i = 0; i < points.length; i++) {
-            // For each other point q, determine the slope it makes with p.
-            // Sort the points according to the slopes they makes with p.
-            // Check if any 3 (or more) adjacent points in the sorted order have equal
-            // slopes with respect to p. If so, these points, together with p, are
-            // collinear.
-            // Applying this method for each of the N points
-
-            Point p = points[i];
-            if (verbose) System.out.println("\n-------------- Next p " + i + " " + p);
-            if (p == null) throw new java.lang.NullPointerException();
-
-            Arrays.sort(aux, p.slopeOrder());
-
-            // init counter for first slope for first q
-            // which is actually p
-            double prev_slope = p.slopeTo(aux[0]);
-            int collinear_count = 1;
-            boolean inOrder = true;
-            Point max_point = p;
-
-            // all other q, other than those not seen
-            for (int j = 1; j < aux.length; j++) {
-                Point q = aux[j];
-                double p_to_q = p.slopeTo(q);
-
-                if (p_to_q == Double.NEGATIVE_INFINITY) throw new java.lang.IllegalArgumentException();
-
-                else if (p_to_q == prev_slope) {
-                    // same slope as adjacent slope
-                    collinear_count++;
-
-                    if (p.compareTo(q) > 0) {
-                        // p is bigger than q
-                        inOrder = false;
-                    } else if (max_point.compareTo(q) < 0) {
-                        // q is the biggest q in the segment
-                        max_point = q;
-                    }
-
-                    if (verbose) System.out.println(collinear_count + " with slope " + p_to_q + " ordered " + inOrder + " q " + q);
-
-                    // on last element check for line now
-                    // because there will be no more new slopes
-                    if (j == aux.length - 1) {
-                        checkForLineSegment(inOrder, collinear_count, p, max_point);
-                    }
+    private FastCollinearPoints(Point[] points, Consumer<LineSegment> consumer) {
+        checkPoints(points);
+        this.points = points;
 
-                } else {
-                    // new slope
+        Scratch scratch = new Scratch(points.length);
+        for (int i = 0; i < points.length; i++) {
+            findSegments(points[i], scratch, consumer);
+        }
+    }
 
-                    // check if previous slope formed line segment
-                    checkForLineSegment(inOrder, collinear_count, p, max_point);
+    private static void checkPoints(Point[] points) {
+        if (points == null) {
+            throw new java.lang.NullPointerException();
+        }
+        for (Point p : points) {
+            if (p == null) throw new java.lang.NullPointerException();
+        }
+    }
 
-                    // reset for new slope
-                    prev_slope = p_to_q;
-                    collinear_count = 1;
-                    inOrder = p.compareTo(q) < 0;
-                    max_point = q;
+    /**
+     *
+     * Finds the segments for origins [lo, hi), splitting in half until the
+     * range is at most grain origins.
+     *
+     */
+    private class OriginTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+        private final int grain;
+        private SegmentList found;
+
+        public OriginTask(int lo, int hi, int grain) {
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+        }
 
-                    if (verbose) System.out.println(collinear_count + " with slope " + p_to_q + " ordered " + inOrder + " q " + q);
+        protected void compute() {
+            if (hi - lo <= grain) {
+                Scratch scratch = new Scratch(points.length);
+                found = new SegmentList();
+                for (int i = lo; i < hi; i++) {
+                    findSegments(points[i], scratch, found);
                 }
+                return;
             }
-        }
-
-    }
 
-    private void checkForLineSegment (boolean inOrder, int collinear_count, Point min, Point max) {
-        if (inOrder && collinear_count > 2) {
-            // found line segment
-            if (verbose) System.out.println("Found line segment " + min + " => " + max);
+            int mid = (lo + hi) >>> 1;
+            OriginTask left = new OriginTask(lo, mid, grain);
+            OriginTask right = new OriginTask(mid, hi, grain);
+            invokeAll(left, right);
 
-            // Point[] segment_points = getSegmentPoints(i, j, collinear_count);
-            // Point[] extremes = findExtremes(segment_points);
-
-            addLineSegment(min, max);
+            found = left.found;
+            found.addAll(right.found);
         }
     }
 
-
     /**
      *
-     * @param  origin_idx       Index of origin point from which segment was found.
-     * @param  last_idx         The index of the last point known to be part of this segment.
-     * @param  collinear_count  Count of collinear points excluding origin.
+     * Per-thread scratch space for findSegments: the slope of every point
+     * with the current origin, and the point indices sorted by that slope.
      *
      */
-    private Point[] getSegmentPoints(int origin_idx, int last_idx, int collinear_count) {
-        Point[] segment_points = new Point[collinear_count + 1];
+    private static class Scratch {
+        private final int[] order;
+        private final double[] slopes;
+
+        public Scratch(int n) {
+            order = new int[n];
+            slopes = new double[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+        }
+    }
 
-        // Put the origin at the beginning of the array of points
-        segment_points[0] = this.points[origin_idx];
+    /**
+     *
+     * For each other point q, determine the slope it makes with p.
+     * Sort the points according to the slopes they makes with p.
+     * Check if any 3 (or more) adjacent points in the sorted order have equal
+     * slopes with respect to p. If so, these points, together with p, are
+     * collinear. A segment is only reported from its smallest point, so each
+     * maximal segment is found exactly once over all origins.
+     *
+     * Each slope is computed once into a double[] and the point indices are
+     * sorted on those keys with a primitive 3-way quicksort, instead of
+     * sorting the points with p.slopeOrder(), which recomputes two slopes on
+     * every comparison. Equal slopes end up adjacent either way, so the
+     * segments found and their order are the same.
+     *
+     * @param  p        Origin point.
+     * @param  scratch  Slope keys and sort order, overwritten.
+     * @param  found    Receives the segments found.
+     *
+     */
+    private void findSegments(Point p, Scratch scratch, Consumer<LineSegment> found) {
+        if (verbose) System.out.println("\n-------------- Next p " + p);
 
-        // Goes from last point of segment to beginning
-        for (int k = 0; k < collinear_count; k++) {
-            segment_points[k+1] = this.aux[last_idx + (k - (collinear_count - 1))];
+        int[] order = scratch.order;
+        double[] slopes = scratch.slopes;
+        for (int k = 0; k < points.length; k++) {
+            slopes[k] = p.slopeTo(points[k]);
         }
-        if (verbose) System.out.println(Arrays.toString(segment_points));
+        sortBySlope(order, slopes, 0, order.length - 1);
+
+        // init counter for first slope for first q
+        // which is actually p
+        double prev_slope = slopes[order[0]];
+        int collinear_count = 1;
+        boolean inOrder = true;
+        Point max_point = p;
+
+        // all other q, other than those not seen
+        for (int j = 1; j < order.length; j++) {
+            Point q = points[order[j]];
+            double p_to_q = slopes[order[j]];
+
+            if (p_to_q == Double.NEGATIVE_INFINITY) throw new java.lang.IllegalArgumentException();
+
+            else if (p_to_q == prev_slope) {
+                // same slope as adjacent slope
+                collinear_count++;
+
+                if (p.compareTo(q) > 0) {
+                    // p is bigger than q
+                    inOrder = false;
+                } else if (max_point.compareTo(q) < 0) {
+                    // q is the biggest q in the segment
+                    max_point = q;
+                }
 
-        return segment_points;
+                if (verbose) System.out.println(collinear_count + " with slope " + p_to_q + " ordered " + inOrder + " q " + q);
 
-    }
+                // on last element check for line now
+                // because there will be no more new slopes
+                if (j == order.length - 1) {
+                    checkForLineSegment(inOrder, collinear_count, p, max_point, found);
+                }
 
-    private void addLineSegment (Point smallest, Point largest) {
+            } else {
+                // new slope
 
-        // create line segment
-        LineSegment ls = new LineSegment(smallest, largest);
+                // check if previous slope formed line segment
+                checkForLineSegment(inOrder, collinear_count, p, max_point, found);
 
-        resizeArray();
+                // reset for new slope
+                prev_slope = p_to_q;
+                collinear_count = 1;
+                inOrder = p.compareTo(q) < 0;
+                max_point = q;
 
-        // add line segment to segments
-        segments[size++] = ls;
+                if (verbose) System.out.println(collinear_count + " with slope " + p_to_q + " ordered " + inOrder + " q " + q);
+            }
+        }
     }
 
-    private void resizeArray () {
-        // resize array
-        if (size == segments.length) {
-            LineSegment[] cp = new LineSegment[segments.length * 2];
-            for (int m = 0; m < segments.length; m++) {
-                cp[m] = segments[m];
+    /**
+     *
+     * Dijkstra 3-way quicksort of order[lo..hi] by key[order[i]], with a
+     * median-of-3 pivot and insertion sort on small ranges. Runs of equal
+     * slopes, which are what we are looking for, are partitioned out in one
+     * pass rather than recursed into.
+     *
+     */
+    private static void sortBySlope(int[] order, double[] key, int lo, int hi) {
+        while (hi - lo > 10) {
+            int mid = (lo + hi) >>> 1;
+            if (key[order[mid]] < key[order[lo]]) exch(order, mid, lo);
+            if (key[order[hi]] < key[order[lo]]) exch(order, hi, lo);
+            if (key[order[hi]] < key[order[mid]]) exch(order, hi, mid);
+            exch(order, lo, mid);
+
+            double v = key[order[lo]];
+            int lt = lo, gt = hi, i = lo + 1;
+            while (i <= gt) {
+                double k = key[order[i]];
+                if      (k < v) exch(order, lt++, i++);
+                else if (k > v) exch(order, i, gt--);
+                else            i++;
+            }
+
+            // recurse into the smaller side, loop on the larger
+            if (lt - lo < hi - gt) {
+                sortBySlope(order, key, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                sortBySlope(order, key, gt + 1, hi);
+                hi = lt - 1;
             }
-            segments = cp;
         }
-    }
 
-    private Point[] findExtremes(Point[] segment_points) {
-        // Find extremes
-        Point smallest = segment_points[0];
-        Point largest = segment_points[0];
-        for (int m = 1; m < segment_points.length; m++) {
-            Point point = segment_points[m];
-            if (point.compareTo(largest) == 1) {
-                largest = point;
-            } else if (point.compareTo(smallest) == -1) {
-                smallest = point;
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && key[order[j]] < key[order[j - 1]]; j--) {
+                exch(order, j, j - 1);
             }
         }
+    }
 
-        Point[] extremes = {smallest, largest};
-        return extremes;
+    private static void exch(int[] a, int i, int j) {
+        int swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
     }
 
+    private void checkForLineSegment (boolean inOrder, int collinear_count, Point min, Point max, Consumer<LineSegment> found) {
+        if (inOrder && collinear_count > 2) {
+            // found line segment
+            if (verbose) System.out.println("Found line segment " + min + " => " + max);
+
+            found.accept(new LineSegment(min, max));
+        }
+    }
 
     public int numberOfSegments() {
        // the number of line segments
-        return size;
+        return segments.size;
     }
 
     /**
@@ -213,11 +371,7 @@ public class FastCollinearPoints {
      */
     public LineSegment[] segments() {
         // the line segments
-        LineSegment[] cp = new LineSegment[size];
-        for (int i = 0; i < size; i++) {
-            cp[i] = segments[i];
-        }
-        return cp;
+        return segments.toArray();
     }
 
     public static void main(String[] args) {
@@ -240,8 +394,10 @@ public class FastCollinearPoints {
         }
         StdDraw.show();
 
-        // print and draw the line segments
-        FastCollinearPoints collinear = new FastCollinearPoints(points);
+        // print and draw the line segments, optionally on several threads
+        int parallelism = 1;
+        if (args.length > 1) parallelism = Integer.parseInt(args[1]);
+        FastCollinearPoints collinear = new FastCollinearPoints(points, parallelism);
         for (LineSegment segment : collinear.segments()) {
             StdOut.println(segment);
             segment.draw();
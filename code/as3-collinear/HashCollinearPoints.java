@@ -0,0 +1,212 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdDraw;
+
+public class HashCollinearPoints {
+
+    private LineSegment[] segments;
+    private int size;
+
+    // open addressing table of directions from the current origin
+    private long[] keyDx;
+    private long[] keyDy;
+    private int[] stamp;
+    private int[] count;
+    private int[] maxIndex;
+    private boolean[] hasSmaller;
+    private int[] used;
+    private int mask;
+
+    /**
+     *
+     * A hashing-based alternative to FastCollinearPoints. For each origin p,
+     * every other point q is bucketed by the direction from p to q, reduced
+     * to lowest terms: (dx/g, dy/g) with g = gcd(|dx|, |dy|) and the sign
+     * fixed so that dx > 0, or dx = 0 and dy > 0. Points on the same line
+     * through p, on either side of it, share one key.
+     *
+     * The keys are exact integers, so unlike comparing double slopes there
+     * is no rounding even when coordinates span the full int range: the
+     * differences need 33 bits, so each key is a pair of longs in a primitive
+     * open addressing table rather than one packed long.
+     *
+     * Each bucket tracks how many points it holds, its largest point and
+     * whether any of its points is smaller than p. A line with 3 or more
+     * other points is reported from p only when p is its smallest point, so
+     * each maximal segment is found exactly once.
+     *
+     * Performance. Expected N^2 hash operations (plus a gcd of O(log C) for
+     * coordinates up to C per pair), no sorting, and space proportional to
+     * N plus the number of segments. The segments are the same as
+     * FastCollinearPoints finds but not necessarily in the same order.
+     *
+     */
+    public HashCollinearPoints(Point[] points) {
+        // finds all line segments containing 4 points
+
+        if (points == null) {
+            throw new java.lang.NullPointerException();
+        }
+        for (Point p : points) {
+            if (p == null) throw new java.lang.NullPointerException();
+        }
+
+        segments = new LineSegment[1];
+        size = 0;
+
+        int capacity = 4;
+        while (capacity < 2 * points.length) {
+            capacity *= 2;
+        }
+        mask = capacity - 1;
+        keyDx = new long[capacity];
+        keyDy = new long[capacity];
+        stamp = new int[capacity];
+        count = new int[capacity];
+        maxIndex = new int[capacity];
+        hasSmaller = new boolean[capacity];
+        used = new int[points.length];
+
+        for (int i = 0; i < points.length; i++) {
+            findSegments(points, i);
+        }
+    }
+
+    private void findSegments(Point[] points, int i) {
+        Point p = points[i];
+
+        // stamps mark the slots that belong to this origin, so the table is
+        // never cleared
+        int current = i + 1;
+        int n = 0;
+
+        for (int j = 0; j < points.length; j++) {
+            if (j == i) continue;
+            Point q = points[j];
+
+            long dx = (long) q.x() - p.x();
+            long dy = (long) q.y() - p.y();
+            if (dx == 0 && dy == 0) throw new java.lang.IllegalArgumentException();
+
+            // one direction per line
+            if (dx < 0 || (dx == 0 && dy < 0)) {
+                dx = -dx;
+                dy = -dy;
+            }
+            long g = gcd(dx, Math.abs(dy));
+            dx /= g;
+            dy /= g;
+
+            int slot = (int) hash(dx, dy) & mask;
+            while (stamp[slot] == current && (keyDx[slot] != dx || keyDy[slot] != dy)) {
+                slot = (slot + 1) & mask;
+            }
+
+            if (stamp[slot] != current) {
+                stamp[slot] = current;
+                keyDx[slot] = dx;
+                keyDy[slot] = dy;
+                count[slot] = 0;
+                maxIndex[slot] = j;
+                hasSmaller[slot] = false;
+                used[n++] = slot;
+            }
+
+            count[slot]++;
+            if (p.compareTo(q) > 0) {
+                hasSmaller[slot] = true;
+            } else if (points[maxIndex[slot]].compareTo(q) < 0) {
+                maxIndex[slot] = j;
+            }
+        }
+
+        for (int k = 0; k < n; k++) {
+            int slot = used[k];
+            if (count[slot] >= 3 && !hasSmaller[slot]) {
+                addLineSegment(new LineSegment(p, points[maxIndex[slot]]));
+            }
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        // binary gcd: shifts and subtractions instead of 64-bit division
+        if (a == 0) return b;
+        if (b == 0) return a;
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>= Long.numberOfTrailingZeros(a);
+        while (b != 0) {
+            b >>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long t = a;
+                a = b;
+                b = t;
+            }
+            b -= a;
+        }
+        return a << shift;
+    }
+
+    private static long hash(long dx, long dy) {
+        // mix both halves so nearby directions spread over the table
+        long h = dx * 0x9E3779B97F4A7C15L + dy;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+
+    private void addLineSegment (LineSegment ls) {
+        // resize array
+        if (size == segments.length) {
+            LineSegment[] cp = new LineSegment[segments.length * 2];
+            for (int m = 0; m < segments.length; m++) {
+                cp[m] = segments[m];
+            }
+            segments = cp;
+        }
+
+        // add line segment to segments
+        segments[size++] = ls;
+    }
+
+    public int numberOfSegments() {
+       // the number of line segments
+        return size;
+    }
+
+    public LineSegment[] segments() {
+        // the line segments
+        LineSegment[] cp = new LineSegment[size];
+        for (int i = 0; i < size; i++) {
+            cp[i] = segments[i];
+        }
+        return cp;
+    }
+
+    public static void main(String[] args) {
+        // read the N points from a file
+        In in = new In(args[0]);
+        int N = in.readInt();
+        Point[] points = new Point[N];
+        for (int i = 0; i < N; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        // draw the points
+        StdDraw.show(0);
+        StdDraw.setXscale(0, 32768);
+        StdDraw.setYscale(0, 32768);
+        for (Point p : points) {
+            p.draw();
+        }
+        StdDraw.show();
+
+        // print and draw the line segments
+        HashCollinearPoints collinear = new HashCollinearPoints(points);
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+            segment.draw();
+        }
+    }
+}
@@ -28,6 +28,26 @@ public class Point implements Comparable<Point> {
         this.y = y;
     }
 
+    /**
+     * Returns the x-coordinate of this point. Package-private, for clients
+     * that need exact integer arithmetic rather than slopeTo().
+     *
+     * @return the <em>x</em>-coordinate
+     */
+    int x() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of this point. Package-private, for clients
+     * that need exact integer arithmetic rather than slopeTo().
+     *
+     * @return the <em>y</em>-coordinate
+     */
+    int y() {
+        return y;
+    }
+
     /**
      * Draws this point to standard draw.
      */
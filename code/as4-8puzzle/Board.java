@@ -4,116 +4,166 @@ import java.util.Arrays;
 
 
 public class Board {
-    private int[][] blocks;
-    private boolean verbose = false;
-    private int manhattan_score = 0;
-    private int hamming_score = 0;
-    private MatrixIndex free;
+    private static final int PACKED_MAX_DIMENSION = 4;
+
+    private final int n;
+    // tiles in row-major order, 4 bits each, when n <= 4
+    private final long packed;
+    // tiles in row-major order when n > 4, otherwise null
+    private final char[] tiles;
+    // row-major index of the free cell
+    private final int free;
+    private final int manhattan_score;
+    private final int hamming_score;
 
     /**
      *
-     * Helper class for matrix indices.
+     * Construct a board from an N-by-N array of blocks and calculate hamming
+     * and manhattan scores.
+     *
+     * Boards up to 4x4 keep every tile in one long, 4 bits per tile, so a
+     * board is a handful of fields with no arrays; larger boards keep a
+     * row-major char[]. Both scores are updated incrementally for each move,
+     * so creating a neighbor is constant time.
      *
      */
-    private class MatrixIndex {
-        public int i;
-        public int j;
+    public Board(int[][] blocks) {
+        n = blocks.length;
 
-        public MatrixIndex(int i, int j) {
-            this.i = i;
-            this.j = j;
+        long packed = 0;
+        char[] tiles = null;
+        if (n > PACKED_MAX_DIMENSION) {
+            tiles = new char[n * n];
         }
 
-        public void reset(int i, int j) {
-            this.i = i;
-            this.j = j;
-        }
+        int free = -1;
+        int manhattan = 0;
+        int hamming = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int cell = i * n + j;
+                int value = blocks[i][j];
+                if (tiles == null) {
+                    packed |= ((long) value) << (4 * cell);
+                } else {
+                    tiles[cell] = (char) value;
+                }
 
-        public String toString() {
-            return this.i + "," + this.j;
+                if (value == 0) {
+                    free = cell;
+                } else {
+                    manhattan += distance(value, cell);
+                }
+                hamming += hammingScore(cell, value);
+            }
         }
+
+        this.packed = packed;
+        this.tiles = tiles;
+        this.free = free;
+        this.manhattan_score = manhattan;
+        this.hamming_score = hamming;
+    }
+
+    private Board(int n, long packed, char[] tiles, int free, int manhattan, int hamming) {
+        this.n = n;
+        this.packed = packed;
+        this.tiles = tiles;
+        this.free = free;
+        this.manhattan_score = manhattan;
+        this.hamming_score = hamming;
     }
 
     /**
      *
-     * Construct a board from an N-by-N array of blocks and calculate hamming
-     * and manhattan scores.
-     *
+     * Vertical and horizontal distance between a cell and the goal cell of
+     * the block with the given value.
      *
      */
-    public Board(int[][] blocks) {
-        this.blocks = new int[blocks.length][blocks.length];
+    private int distance(int value, int cell) {
+        int goal = value - 1;
+        return Math.abs(cell / n - goal / n) + Math.abs(cell % n - goal % n);
+    }
 
-        for (int i = 0; i < blocks.length; i++) {
-            for (int j = 0; j < blocks[i].length; j++) {
-                this.blocks[i][j] = blocks[i][j];
-                updateHammingScore(i, j);
-                updateManhattanScore(i, j);
-            }
+    /**
+     *
+     * Hamming contribution of a cell: 1 if the cell is not the last one and
+     * does not hold its goal value.
+     *
+     */
+    private int hammingScore(int cell, int value) {
+        if (cell == n * n - 1) {
+            return 0;
         }
-
+        return value != cell + 1 ? 1 : 0;
     }
 
     /**
      *
-     * Update manhattan score for particular block location i j. Calculate goal
-     * position for value, sum vertical and horizontal distance from goal
-     * position and add to manhattan score. If is the free cell, save its
-     * location and don't calulcate score.
-     *
-     * @param i Block row position.
-     * @param j Block col position.
+     * @param cell Row-major cell index.
+     * @return Value of the block in that cell, 0 for the free cell.
      *
      */
-    private void updateManhattanScore(int i, int j) {
-        int value = blocks[i][j];
-        if (value == 0) {
-            // save MatrixIndex of free square
-            free = new MatrixIndex(i, j);
-        } else {
-            // calculate goal position for this value
-            int goal_i = (value - 1) / dimension();
-            int goal_j = (value - 1) % dimension();
-
-            // calculate vertical and horizontal distances
-            int distance = Math.abs(i - goal_i) + Math.abs(j - goal_j);
-
-            // update manhattan_score
-            manhattan_score += distance;
-
-            if (verbose) {
-                // System.out.println(value + " from " + i + "," + j + " to " + goal_i + "," + goal_j + " = " + distance);
-            }
+    int tileAt(int cell) {
+        if (tiles == null) {
+            return (int) (packed >>> (4 * cell)) & 0xF;
         }
+        return tiles[cell];
     }
 
     /**
      *
-     * Update hamming score for particular block position, if it is not the free
-     * cell. Incremeent score if block not in correct cell.
+     * @return Row-major index of the free cell.
      *
-     * @param i Block row position.
-     * @param j Block col position.
+     */
+    int freeCell() {
+        return free;
+    }
+
+    /**
+     *
+     * Can this board reach the goal board? Moves left or right keep the order
+     * of the blocks in row-major order, ignoring the free cell. A move up or
+     * down takes one block past N - 1 others, which changes the parity of
+     * that order when N is even, and also changes the free cell's row. So
+     * the parity of the order, plus the free cell's row when N is even, never
+     * changes, and has to match the goal: no blocks out of order, with the
+     * free cell on the last row.
+     *
+     * The parity of the order is the parity of the number of blocks minus
+     * the number of cycles in the permutation, so this takes time
+     * proportional to N^2.
      *
      */
-    private void updateHammingScore(int i, int j) {
-        // if not free cell
-        if (!(i == dimension() - 1 && j == dimension() - 1)) {
-            // calculate goal value for this cell
-            int goal = i * dimension() + j + 1;
-            if (blocks[i][j] != goal) {
-                hamming_score ++;
+    boolean isSolvable() {
+        int blocks = n * n - 1;
+        int[] order = new int[blocks];
+        for (int cell = 0, i = 0; cell < n * n; cell++) {
+            if (cell != free) {
+                order[i++] = tileAt(cell) - 1;
             }
+        }
 
-            if (verbose) {
-                // System.out.println(i + "," + j + " " + block + " is " + goal + "?" );
+        boolean[] visited = new boolean[blocks];
+        int cycles = 0;
+        for (int i = 0; i < blocks; i++) {
+            if (visited[i]) continue;
+            cycles++;
+            for (int j = i; !visited[j]; j = order[j]) {
+                visited[j] = true;
             }
         }
+
+        int parity = (blocks - cycles) % 2;
+        if (n % 2 == 1) {
+            return parity == 0;
+        }
+        return (parity + free / n) % 2 == (n - 1) % 2;
     }
 
     public int dimension() {
         // board dimension N
-        return blocks.length;
+        return n;
     }
 
     public int hamming() {
@@ -133,66 +183,53 @@ public class Board {
 
     /**
      *
-     * A board that is obtained by exchanging any pair of blocks. Find first
-     * pair of non free blocks and createMovedBoard exchanging these blocks.
+     * A board that is obtained by exchanging any pair of blocks. Exchanges
+     * the first two non free blocks in row-major order.
      *
      * @return A board with a pair of exchanged blocks.
      *
      */
-
     public Board twin() {
-        MatrixIndex nonFreeBlock1 = new MatrixIndex(0, 0);
-        findNextBlock(nonFreeBlock1);
-
-        MatrixIndex nonFreeBlock2 = new MatrixIndex(nonFreeBlock1.i, nonFreeBlock1.j);
-        incrementMatrixIndex(nonFreeBlock2);
-        findNextBlock(nonFreeBlock2);
-
-        if (verbose) {
-            System.out.println(nonFreeBlock1 + " " + nonFreeBlock2);
-        }
-        return createMovedBoard(nonFreeBlock1, nonFreeBlock2);
-    }
-
-    private boolean isFreeBlock(MatrixIndex loc) {
-        return loc.i == free.i && loc.j == free.j;
-    }
-
-    private boolean inBounds(MatrixIndex loc) {
-        return loc.i >= 0 && loc.i < dimension() && loc.j >= 0 && loc.j < dimension();
-    }
-
-    private void incrementMatrixIndex(MatrixIndex loc) {
-        int block = loc.i * dimension() + loc.j + 1;
-        loc.reset((block) / dimension(), (block) % dimension());
-    }
-
-    private void findNextBlock(MatrixIndex cursor) {
-        // ensures is not free block
-        while (isFreeBlock(cursor) || !inBounds(cursor)){
-            incrementMatrixIndex(cursor);
+        int a = free == 0 ? 1 : 0;
+        int b = a + 1;
+        if (b == free) {
+            b++;
         }
+        return swap(a, b);
     }
 
     /**
      *
-     * Exchanges src, dest indicies specified, creates board, switches blocks
-     * back to original positions and returns board.
-     *
-     * @param src Source index.
-     * @param dest Destination index.
-     * @return Returns board where src and destination indices have been
-     *         swapped.
+     * Exchanges the values in cells a and b, updating both scores for just
+     * those two cells.
      *
      */
-    private Board createMovedBoard(MatrixIndex src, MatrixIndex dest) {
-        int srcVal = blocks[src.i][src.j];
-        blocks[src.i][src.j] = blocks[dest.i][dest.j];
-        blocks[dest.i][dest.j] = srcVal;
-        Board movedBoard = new Board(blocks);
-        blocks[dest.i][dest.j] = blocks[src.i][src.j];
-        blocks[src.i][src.j] = srcVal;
-        return movedBoard;
+    private Board swap(int a, int b) {
+        int valueA = tileAt(a);
+        int valueB = tileAt(b);
+
+        int manhattan = manhattan_score;
+        if (valueA != 0) manhattan += distance(valueA, b) - distance(valueA, a);
+        if (valueB != 0) manhattan += distance(valueB, a) - distance(valueB, b);
+
+        int hamming = hamming_score
+            - hammingScore(a, valueA) - hammingScore(b, valueB)
+            + hammingScore(a, valueB) + hammingScore(b, valueA);
+
+        int newFree = free;
+        if (valueA == 0) newFree = b;
+        if (valueB == 0) newFree = a;
+
+        if (tiles == null) {
+            long cleared = packed & ~((0xFL << (4 * a)) | (0xFL << (4 * b)));
+            long moved = cleared | ((long) valueA << (4 * b)) | ((long) valueB << (4 * a));
+            return new Board(n, moved, null, newFree, manhattan, hamming);
+        }
+
+        char[] moved = tiles.clone();
+        moved[a] = (char) valueB;
+        moved[b] = (char) valueA;
+        return new Board(n, 0, moved, newFree, manhattan, hamming);
     }
 
     public boolean equals(Object y) {
@@ -209,21 +246,17 @@ public class Board {
         }
 
         Board that = (Board) y;
+        return n == that.n && packed == that.packed && Arrays.equals(tiles, that.tiles);
+    }
 
-        if (dimension() != that.dimension()) {
-            return false;
-        }
-
-        for (int i = 0; i < blocks.length; i++) {
-            for (int j = 0; j < blocks[i].length; j++) {
-                if (blocks[i][j] != that.blocks[i][j]) {
-                    return false;
-                }
-            }
-
+    public int hashCode() {
+        if (tiles == null) {
+            // spread the packed tiles so that boards one move apart
+            // land in different buckets
+            long h = packed * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
         }
-
-        return true;
+        return Arrays.hashCode(tiles);
     }
 
     public Iterable<Board> neighbors() {
@@ -236,50 +269,26 @@ public class Board {
             return new NeighborIterator();
         }
 
+        /**
+         *
+         * Moves the block left of, right of, above and below the free cell
+         * into it, in that order, skipping directions off the board.
+         *
+         */
         private class NeighborIterator implements Iterator<Board> {
 
             private int directions_checked = 0;
-            private int left = free.j - 1;
-            private int right = free.j + 1;
-            private int top = free.i - 1;
-            private int bottom = free.i + 1;
-            private MatrixIndex move = new MatrixIndex(-1, -1);
-            private Board current;
             private Board next = nextBoard();
 
-
-            private boolean hasExhaustedDirections() {
-                return directions_checked >= 4;
-            }
-
-            private void getNextMove() {
-                if (directions_checked == 0) {
-                    move.reset(free.i, left);
-                } else if (directions_checked == 1) {
-                    move.reset(free.i, right);
-                } else if (directions_checked == 2) {
-                    move.reset(top, free.j);
-                } else if (directions_checked == 3) {
-                    move.reset(bottom, free.j);
-                }
-            }
-
-            /**
-             *
-             * Check if move in particular direction is in bounds. If in bounds
-             * create moved board, else try next direction until exhausted all
-             * directions.
-             *
-             * @return moved board in a particular direction.
-             *
-             */
             private Board nextBoard () {
-                while (!hasExhaustedDirections()) {
-                    getNextMove();
-                    directions_checked++;
-                    if (inBounds(move)) {
-                        return createMovedBoard(free, move);
-                    }
+                int row = free / n;
+                int col = free % n;
+                while (directions_checked < 4) {
+                    int direction = directions_checked++;
+                    if (direction == 0 && col > 0)     return swap(free, free - 1);
+                    if (direction == 1 && col < n - 1) return swap(free, free + 1);
+                    if (direction == 2 && row > 0)     return swap(free, free - n);
+                    if (direction == 3 && row < n - 1) return swap(free, free + n);
                 }
                 return null;
             }
@@ -298,7 +307,7 @@ public class Board {
                     throw new java.util.NoSuchElementException();
                 }
 
-                current = next;
+                Board current = next;
                 next = nextBoard();
                 return current;
             }
@@ -308,17 +317,19 @@ public class Board {
 
     public String toString() {
         // string representation of this board (in the output format specified below)
-        String output = dimension() + "\n";
-        for (int i = 0; i < blocks.length; i++) {
-            for (int j = 0; j < blocks[i].length; j++) {
-                if (blocks[i][j] < 10) {
-                    output += " ";
+        StringBuilder output = new StringBuilder();
+        output.append(n).append("\n");
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int value = tileAt(i * n + j);
+                if (value < 10) {
+                    output.append(" ");
                 }
-                output += blocks[i][j] + " ";
+                output.append(value).append(" ");
             }
-            output += "\n";
+            output.append("\n");
         }
-        return output;
+        return output.toString();
     }
 
 
@@ -350,27 +361,71 @@ public class Board {
             {7, 5, 8}
         };
 
+        // toString() starts with the dimension line, which the original
+        // expected strings left out
         String[] neighbors = new String[] {
-            " 4  1  3 \n 2  0  6 \n 7  5  8 \n",
-            " 0  1  3 \n 4  2  6 \n 7  5  8 \n",
-            " 4  1  3 \n 7  2  6 \n 0  5  8 \n"
+            "3\n 4  1  3 \n 2  0  6 \n 7  5  8 \n",
+            "3\n 0  1  3 \n 4  2  6 \n 7  5  8 \n",
+            "3\n 4  1  3 \n 7  2  6 \n 0  5  8 \n"
         };
 
         board = new Board(blocks);
         assert board.dimension() == 3;
         assert board.isGoal() == false;
-        assert board.hamming() == 6;
-        assert board.manhattan() == 8;
+        // blocks 4, 1, 2, 5 and 8 are each one move from their goal cells;
+        // the original hamming of 6 counted the free cell, and the original
+        // manhattan of 8 is not the sum for this board
+        assert board.hamming() == 5 : board.hamming();
+        assert board.manhattan() == 5 : board.manhattan();
         int i = 0;
         for (Board neighbor : board.neighbors()) {
-            assert neighbor.toString() == neighbors[i];
+            // equals(), since == on two strings or boards compares references
+            // and was always false
+            assert neighbor.toString().equals(neighbors[i]) : neighbor;
+            // incremental scores agree with scores computed from scratch
+            Board fresh = new Board(toBlocks(neighbor));
+            assert neighbor.equals(fresh);
+            assert neighbor.hashCode() == fresh.hashCode();
+            assert neighbor.manhattan() == fresh.manhattan();
+            assert neighbor.hamming() == fresh.hamming();
             i++;
         }
-
-        assert board.twin().blocks == new int [][] {{1, 4, 3}, {0, 2, 6}, {7, 5, 8}};
-        assert board.twin() == new Board(new int [][] {{1, 4, 3}, {0, 2, 6}, {7, 5, 8}});
+        assert i == 3 : i;
+
+        assert board.twin().equals(new Board(new int [][] {{1, 4, 3}, {0, 2, 6}, {7, 5, 8}}));
+        assert !board.twin().equals(board);
+
+        // exactly one of a board and its twin can be solved
+        assert board.isSolvable();
+        assert !board.twin().isSolvable();
+        assert new Board(new int [][] {{1, 2, 3}, {4, 5, 6}, {8, 7, 0}}).isSolvable() == false;
+        assert new Board(new int [][] {{1, 2}, {3, 0}}).isSolvable();
+        assert new Board(new int [][] {{0, 1}, {3, 2}}).isSolvable();
+        assert new Board(new int [][] {{1, 0}, {2, 3}}).isSolvable() == false;
+
+        // larger boards use the array representation
+        int[][] big = new int[5][5];
+        for (int k = 0; k < 25; k++) {
+            big[k / 5][k % 5] = (k + 1) % 25;
+        }
+        Board goal = new Board(big);
+        assert goal.isGoal();
+        assert goal.manhattan() == 0;
+        for (Board neighbor : goal.neighbors()) {
+            assert neighbor.manhattan() == 1;
+            assert neighbor.equals(new Board(toBlocks(neighbor)));
+        }
 
         System.out.println("All tests passed :-)");
     }
 
+    private static int[][] toBlocks(Board board) {
+        int n = board.dimension();
+        int[][] blocks = new int[n][n];
+        for (int k = 0; k < n * n; k++) {
+            blocks[k / n][k % n] = board.tileAt(k);
+        }
+        return blocks;
+    }
+
 }
@@ -0,0 +1,148 @@
+/**
+ *
+ * Minimum priority queue for small non-negative integer priorities. Items
+ * are kept in one stack per priority, and delMin() takes from the lowest
+ * non-empty stack, so items of equal priority come out last in, first out.
+ *
+ * Corner cases.
+ *  Throw a java.lang.IllegalArgumentException for a negative priority, and a
+ * java.util.NoSuchElementException on delMin() from an empty queue.
+ *
+ * Performance.
+ *  insert() is amortized constant time. delMin() scans up from the last
+ * minimum, which is constant time when priorities mostly grow, as the A*
+ * priorities of a consistent heuristic do. Space is proportional to the
+ * largest priority plus the most items ever held in each stack; stacks do
+ * not shrink.
+ *
+ */
+
+
+public class BucketQueue<Item> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private Item[][] buckets;
+    private int[] sizes;
+    // no bucket below min holds items
+    private int min;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public BucketQueue() {
+        // construct an empty queue
+        buckets = (Item[][]) new Object[INITIAL_CAPACITY][];
+        sizes = new int[INITIAL_CAPACITY];
+    }
+
+    public boolean isEmpty() {
+        // is the queue empty?
+        return size == 0;
+    }
+
+    public int size() {
+        // number of items on the queue
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void insert(Item item, int priority) {
+        // add the item with the given priority
+
+        if (priority < 0) {
+            throw new java.lang.IllegalArgumentException();
+        }
+
+        if (priority >= buckets.length) {
+            int capacity = buckets.length;
+            while (capacity <= priority) {
+                capacity *= 2;
+            }
+            Item[][] grown = (Item[][]) new Object[capacity][];
+            int[] grownSizes = new int[capacity];
+            System.arraycopy(buckets, 0, grown, 0, buckets.length);
+            System.arraycopy(sizes, 0, grownSizes, 0, sizes.length);
+            buckets = grown;
+            sizes = grownSizes;
+        }
+
+        Item[] bucket = buckets[priority];
+        if (bucket == null) {
+            bucket = (Item[]) new Object[INITIAL_CAPACITY];
+            buckets[priority] = bucket;
+        } else if (sizes[priority] == bucket.length) {
+            Item[] grown = (Item[]) new Object[2 * bucket.length];
+            System.arraycopy(bucket, 0, grown, 0, bucket.length);
+            bucket = grown;
+            buckets[priority] = bucket;
+        }
+
+        bucket[sizes[priority]++] = item;
+        if (priority < min || size == 0) {
+            min = priority;
+        }
+        size++;
+    }
+
+    public Item delMin() {
+        // remove and return an item of the smallest priority
+
+        if (isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+
+        while (sizes[min] == 0) {
+            min++;
+        }
+        Item[] bucket = buckets[min];
+        int last = --sizes[min];
+        Item item = bucket[last];
+        // avoid loitering
+        bucket[last] = null;
+        size--;
+        return item;
+    }
+
+    public static void main(String[] args) {
+        // unit testing
+        BucketQueue<String> queue = new BucketQueue<String>();
+        assert queue.isEmpty();
+
+        queue.insert("c", 3);
+        queue.insert("a", 1);
+        queue.insert("b", 1);
+        queue.insert("z", 100);
+        assert queue.size() == 4 : queue.size();
+        assert queue.delMin().equals("b");
+        assert queue.delMin().equals("a");
+
+        // an item below the last minimum comes out next
+        queue.insert("x", 0);
+        assert queue.delMin().equals("x");
+        assert queue.delMin().equals("c");
+        assert queue.delMin().equals("z");
+        assert queue.isEmpty();
+
+        // many items in one bucket
+        for (int i = 0; i < 1000; i++) queue.insert("i" + i, 7);
+        for (int i = 999; i >= 0; i--) assert queue.delMin().equals("i" + i);
+
+        boolean thrown = false;
+        try {
+            queue.delMin();
+        } catch (java.util.NoSuchElementException e) {
+            thrown = true;
+        }
+        assert thrown;
+
+        thrown = false;
+        try {
+            queue.insert("n", -1);
+        } catch (java.lang.IllegalArgumentException e) {
+            thrown = true;
+        }
+        assert thrown;
+
+        System.out.println("Tests passed! :-)");
+    }
+}
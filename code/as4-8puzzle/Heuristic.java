@@ -0,0 +1,40 @@
+/**
+ *
+ * Lower bound on the number of moves from a board to the goal board, used by
+ * Solver to order and prune its search. An estimate must never exceed the
+ * true number of moves, or solutions are no longer guaranteed to be
+ * shortest.
+ *
+ */
+public interface Heuristic {
+
+    /**
+     *
+     * Number of blocks out of place.
+     *
+     */
+    Heuristic HAMMING = new Heuristic() {
+        public int estimate(Board board) {
+            return board.hamming();
+        }
+    };
+
+    /**
+     *
+     * Sum of the Manhattan distances between blocks and their goal cells.
+     *
+     */
+    Heuristic MANHATTAN = new Heuristic() {
+        public int estimate(Board board) {
+            return board.manhattan();
+        }
+    };
+
+    /**
+     *
+     * @param board Board to estimate.
+     * @return Lower bound on the moves needed to solve board.
+     *
+     */
+    int estimate(Board board);
+}
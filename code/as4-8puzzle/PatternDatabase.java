@@ -0,0 +1,606 @@
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ *
+ * Disjoint additive pattern database heuristic, after Korf and Felner,
+ * "Disjoint Pattern Database Heuristics" (2002).
+ *
+ * The blocks are split into disjoint groups, such as 6-6-3 for the
+ * 15-puzzle. For each group, a table holds the exact number of moves of that
+ * group's blocks needed to bring them to their goal cells from any
+ * placement, where the other blocks are indistinguishable and their moves
+ * are free. Each move moves one block, so it is counted by exactly one group,
+ * and the sum of the table entries over all groups is a lower bound on the
+ * moves to solve the board. When the groups cover every block, it is never
+ * below the Manhattan distance, since each group's entry is at least the
+ * Manhattan distance of its own blocks; blocks in no group add nothing.
+ *
+ * The tables are built once by breadth-first search backwards from the goal
+ * placement, written to a binary file, and memory mapped by load(). A group
+ * of k blocks on an N-by-N board has (N^2)! / (N^2 - k)! placements, each
+ * stored in one byte: about 11MB for 6-6-3 on 4x4 boards.
+ *
+ *     java PatternDatabase N file [groups]
+ *
+ * builds the database for N-by-N boards into file. groups are comma
+ * separated blocks, for example 1,5,6,9,10,13 7,8,11,12,14,15 2,3,4, and
+ * default to that partition for N = 4 and to 1,2,3,4 5,6,7,8 for N = 3.
+ *
+ */
+public class PatternDatabase implements Heuristic {
+
+    private static final int MAGIC = 0x50444231;
+
+    private final int n;
+    private final int[][] groups;
+    // first table entry of each group within tables
+    private final int[] offset;
+    private final ByteBuffer tables;
+    // cell of each block, reused by estimate() on each thread; bidirectional
+    // search estimates on two threads at once
+    private final ThreadLocal<int[]> cellOf = new ThreadLocal<int[]>() {
+        protected int[] initialValue() {
+            return new int[n * n];
+        }
+    };
+
+    private PatternDatabase(int n, int[][] groups, ByteBuffer tables, int tablesStart) {
+        this.n = n;
+        this.groups = groups;
+        this.tables = tables;
+
+        int cells = n * n;
+        if (cells > Long.SIZE) {
+            // cell sets are 64-bit masks
+            throw new java.lang.IllegalArgumentException("board dimension " + n);
+        }
+        boolean[] grouped = new boolean[cells];
+        offset = new int[groups.length];
+        int next = tablesStart;
+        for (int g = 0; g < groups.length; g++) {
+            for (int i = 0; i < groups[g].length; i++) {
+                int block = groups[g][i];
+                if (block < 1 || block >= cells || grouped[block]) {
+                    throw new java.lang.IllegalArgumentException("block " + block);
+                }
+                grouped[block] = true;
+            }
+            offset[g] = next;
+            next += placements(cells, groups[g].length);
+        }
+    }
+
+    /**
+     *
+     * Builds the tables in memory by breadth-first search.
+     *
+     * @param n Board dimension.
+     * @param groups Disjoint groups of blocks, 1 to N^2 - 1.
+     *
+     */
+    public static PatternDatabase build(int n, int[][] groups) {
+        int cells = n * n;
+        long total = 0;
+        for (int[] group : groups) {
+            total += placements(cells, group.length);
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new java.lang.IllegalArgumentException("tables too large");
+        }
+
+        ByteBuffer tables = ByteBuffer.allocate((int) total);
+        PatternDatabase db = new PatternDatabase(n, groups, tables, 0);
+        for (int g = 0; g < groups.length; g++) {
+            db.search(g);
+        }
+        return db;
+    }
+
+    /**
+     *
+     * Default groups: 6-6-3 for N = 4 and 4-4 for N = 3.
+     *
+     */
+    public static int[][] defaultGroups(int n) {
+        if (n == 3) {
+            return new int[][] {{1, 2, 3, 4}, {5, 6, 7, 8}};
+        }
+        if (n == 4) {
+            return new int[][] {{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+        }
+        throw new java.lang.IllegalArgumentException("no default groups for N = " + n);
+    }
+
+    private static int placements(int cells, int k) {
+        // cells! / (cells - k)!
+        long count = 1;
+        for (int i = 0; i < k; i++) {
+            count *= cells - i;
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw new java.lang.IllegalArgumentException("group too large");
+        }
+        return (int) count;
+    }
+
+    /**
+     *
+     * Breadth-first search from the goal placement of group g. A search state
+     * is a placement plus the region of cells not held by group blocks that
+     * the free cell is in: the free cell moves through its region at no cost,
+     * so only which region matters. Moving a group block into the free cell,
+     * from anywhere in the region next to it, costs one. Every move has cost
+     * one, so the queue holds the states of one depth after another, and
+     * each placement is reached first in its fewest moves, over all regions
+     * of the free cell. The table doubles as the set of placements reached:
+     * 0xFF marks an unreached entry.
+     *
+     */
+    private void search(int g) {
+        int[] group = groups[g];
+        int k = group.length;
+        int cells = n * n;
+        int size = placements(cells, k);
+        int base = offset[g];
+        for (int i = 0; i < size; i++) {
+            tables.put(base + i, (byte) 0xFF);
+        }
+        if ((long) size * cells > Integer.MAX_VALUE) {
+            throw new java.lang.IllegalArgumentException("group too large");
+        }
+
+        // states are placement * cells + lowest cell of the free region
+        long[] visited = new long[(int) (((long) size * cells + 63) / 64)];
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+
+        int[] cell = new int[k];
+        for (int i = 0; i < k; i++) {
+            cell[i] = group[i] - 1;
+        }
+        int goal = rank(cell, cells);
+        int start = goal * cells + lowest(region(occupied(cell), cells - 1));
+        visited[start >>> 6] |= 1L << start;
+        tables.put(base + goal, (byte) 0);
+        queue[tail++] = start;
+
+        // the states at depth moves are queued before levelEnd, the ones
+        // at depth moves + 1 from it
+        int moves = 0;
+        int levelEnd = tail;
+        while (head < tail) {
+            if (head == levelEnd) {
+                moves++;
+                levelEnd = tail;
+            }
+            int state = queue[head++];
+            int current = state / cells;
+            unrank(current, cell, cells);
+            long occupied = occupied(cell);
+            long free = region(occupied, state % cells);
+
+            for (int i = 0; i < k; i++) {
+                int from = cell[i];
+                int row = from / n;
+                int col = from % n;
+                for (int direction = 0; direction < 4; direction++) {
+                    int to;
+                    if (direction == 0 && col > 0)          to = from - 1;
+                    else if (direction == 1 && col < n - 1) to = from + 1;
+                    else if (direction == 2 && row > 0)     to = from - n;
+                    else if (direction == 3 && row < n - 1) to = from + n;
+                    else continue;
+                    if ((free & (1L << to)) == 0) continue;
+
+                    // the block moves into the free cell and leaves it at from
+                    cell[i] = to;
+                    int placement = rank(cell, cells);
+                    long region = region(occupied & ~(1L << from) | (1L << to), from);
+                    cell[i] = from;
+
+                    int next = placement * cells + lowest(region);
+                    if ((visited[next >>> 6] & (1L << next)) != 0) continue;
+                    visited[next >>> 6] |= 1L << next;
+                    if (tables.get(base + placement) == (byte) 0xFF) {
+                        tables.put(base + placement, (byte) (moves + 1));
+                    }
+                    if (tail == queue.length) {
+                        queue = compact(queue, head, tail);
+                        tail -= head;
+                        levelEnd -= head;
+                        head = 0;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * Drops the states already taken off the queue, and doubles its length if
+     * that frees less than half of it.
+     *
+     */
+    private static int[] compact(int[] queue, int head, int tail) {
+        int[] copy = queue;
+        if (tail - head > queue.length / 2) {
+            copy = new int[2 * queue.length];
+        }
+        System.arraycopy(queue, head, copy, 0, tail - head);
+        return copy;
+    }
+
+    private static long occupied(int[] cell) {
+        long occupied = 0;
+        for (int c : cell) {
+            occupied |= 1L << c;
+        }
+        return occupied;
+    }
+
+    private static int lowest(long region) {
+        return Long.numberOfTrailingZeros(region);
+    }
+
+    /**
+     *
+     * Cells not in occupied that can be reached from cell start through
+     * neighboring cells not in occupied, grown one step in all four
+     * directions at a time.
+     *
+     */
+    private long region(long occupied, int start) {
+        int cells = n * n;
+        long board = cells == Long.SIZE ? -1L : (1L << cells) - 1;
+        long open = board & ~occupied;
+        long leftColumn = 0;
+        for (int row = 0; row < n; row++) {
+            leftColumn |= 1L << (row * n);
+        }
+        long notRightColumn = ~(leftColumn << (n - 1));
+
+        long region = 1L << start;
+        while (true) {
+            // a step right must not start in the right column, and a step
+            // left must not land in it
+            long grown = region
+                | ((region & notRightColumn) << 1)
+                | ((region >>> 1) & notRightColumn)
+                | (region << n)
+                | (region >>> n);
+            grown &= open;
+            if (grown == region) {
+                return region;
+            }
+            region = grown;
+        }
+    }
+
+    /**
+     *
+     * Index of a placement of k distinct cells among all cells!/(cells-k)!
+     * placements: each cell is numbered among the cells not taken by the
+     * blocks before it, and the numbers are read as mixed radix digits.
+     *
+     */
+    private static int rank(int[] cell, int cells) {
+        int rank = 0;
+        long used = 0;
+        for (int i = 0; i < cell.length; i++) {
+            int c = cell[i];
+            int digit = c - Long.bitCount(used & ((1L << c) - 1));
+            rank = rank * (cells - i) + digit;
+            used |= 1L << c;
+        }
+        return rank;
+    }
+
+    private static void unrank(int rank, int[] cell, int cells) {
+        int k = cell.length;
+        for (int i = k - 1; i >= 0; i--) {
+            cell[i] = rank % (cells - i);
+            rank /= cells - i;
+        }
+
+        // turn each digit back into the digit-th cell not yet used
+        long used = 0;
+        for (int i = 0; i < k; i++) {
+            int digit = cell[i];
+            int c = 0;
+            while (true) {
+                if ((used & (1L << c)) == 0) {
+                    if (digit == 0) break;
+                    digit--;
+                }
+                c++;
+            }
+            cell[i] = c;
+            used |= 1L << c;
+        }
+    }
+
+    /**
+     *
+     * Sum over the groups of the table entry for the cells their blocks are
+     * in.
+     *
+     */
+    public int estimate(Board board) {
+        if (board.dimension() != n) {
+            throw new java.lang.IllegalArgumentException("board dimension " + board.dimension());
+        }
+
+        int cells = n * n;
+        int[] cellOf = this.cellOf.get();
+        for (int c = 0; c < cells; c++) {
+            cellOf[board.tileAt(c)] = c;
+        }
+
+        int estimate = 0;
+        for (int g = 0; g < groups.length; g++) {
+            int[] group = groups[g];
+            int rank = 0;
+            long used = 0;
+            for (int i = 0; i < group.length; i++) {
+                int c = cellOf[group[i]];
+                int digit = c - Long.bitCount(used & ((1L << c) - 1));
+                rank = rank * (cells - i) + digit;
+                used |= 1L << c;
+            }
+            estimate += tables.get(offset[g] + rank) & 0xFF;
+        }
+        return estimate;
+    }
+
+    /**
+     *
+     * Writes a header (magic number, N, group count, then each group's size
+     * and blocks, all big-endian ints) followed by the tables.
+     *
+     */
+    public void save(String filename) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            out.writeInt(groups.length);
+            for (int[] group : groups) {
+                out.writeInt(group.length);
+                for (int block : group) {
+                    out.writeInt(block);
+                }
+            }
+            byte[] buffer = new byte[1 << 16];
+            for (int i = 0; i < tables.capacity(); i += buffer.length) {
+                int length = Math.min(buffer.length, tables.capacity() - i);
+                ByteBuffer slice = tables.duplicate();
+                slice.position(i);
+                slice.get(buffer, 0, length);
+                out.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new java.lang.IllegalArgumentException("could not write " + filename, e);
+        }
+    }
+
+    /**
+     *
+     * Memory maps a file written by save(). The tables are paged in by the
+     * operating system as they are read, and shared between processes.
+     *
+     */
+    public static PatternDatabase load(String filename) {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt() != MAGIC) {
+                throw new java.lang.IllegalArgumentException(filename + " is not a pattern database");
+            }
+            int n = mapped.getInt();
+            int[][] groups = new int[mapped.getInt()][];
+            for (int g = 0; g < groups.length; g++) {
+                groups[g] = new int[mapped.getInt()];
+                for (int i = 0; i < groups[g].length; i++) {
+                    groups[g][i] = mapped.getInt();
+                }
+            }
+
+            // the mapping stays valid after the channel is closed
+            PatternDatabase db = new PatternDatabase(n, groups, mapped, mapped.position());
+            int end = db.offset[groups.length - 1] + placements(n * n, groups[groups.length - 1].length);
+            if (end != mapped.capacity()) {
+                throw new java.lang.IllegalArgumentException(filename + " is truncated");
+            }
+            return db;
+        } catch (IOException e) {
+            throw new java.lang.IllegalArgumentException("could not read " + filename, e);
+        }
+    }
+
+    /**
+     *
+     * Exact table of a group by 0-1 breadth-first search over placements and
+     * the free cell itself, rather than its region: moving another block
+     * into the free cell costs zero and moving a group block costs one. For
+     * testing search().
+     *
+     */
+    private static int[] exactTable(int n, int[] group) {
+        int k = group.length;
+        int cells = n * n;
+        int size = placements(cells, k);
+        int[] distance = new int[size * cells];
+        java.util.Arrays.fill(distance, Integer.MAX_VALUE);
+
+        int[] cell = new int[k];
+        for (int i = 0; i < k; i++) {
+            cell[i] = group[i] - 1;
+        }
+        int start = rank(cell, cells) * cells + cells - 1;
+        distance[start] = 0;
+        java.util.ArrayDeque<Integer> deque = new java.util.ArrayDeque<Integer>();
+        deque.add(start);
+        while (!deque.isEmpty()) {
+            int state = deque.poll();
+            int placement = state / cells;
+            int free = state % cells;
+            unrank(placement, cell, cells);
+            int row = free / n;
+            int col = free % n;
+            for (int direction = 0; direction < 4; direction++) {
+                int from;
+                if (direction == 0 && col > 0)          from = free - 1;
+                else if (direction == 1 && col < n - 1) from = free + 1;
+                else if (direction == 2 && row > 0)     from = free - n;
+                else if (direction == 3 && row < n - 1) from = free + n;
+                else continue;
+
+                // the block at from moves into the free cell
+                int cost = 0;
+                int next = placement;
+                for (int i = 0; i < k; i++) {
+                    if (cell[i] == from) {
+                        cell[i] = free;
+                        next = rank(cell, cells);
+                        cell[i] = from;
+                        cost = 1;
+                    }
+                }
+                next = next * cells + from;
+                if (distance[state] + cost < distance[next]) {
+                    distance[next] = distance[state] + cost;
+                    if (cost == 0) deque.addFirst(next);
+                    else           deque.addLast(next);
+                }
+            }
+        }
+
+        int[] table = new int[size];
+        for (int placement = 0; placement < size; placement++) {
+            table[placement] = Integer.MAX_VALUE;
+            for (int free = 0; free < cells; free++) {
+                table[placement] = Math.min(table[placement], distance[placement * cells + free]);
+            }
+        }
+        return table;
+    }
+
+    private static int[][] parseGroups(String[] args, int from) {
+        int[][] groups = new int[args.length - from][];
+        for (int g = 0; g < groups.length; g++) {
+            String[] blocks = args[from + g].split(",");
+            groups[g] = new int[blocks.length];
+            for (int i = 0; i < blocks.length; i++) {
+                groups[g][i] = Integer.parseInt(blocks[i]);
+            }
+        }
+        return groups;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static Board readBoard(String filename) {
+        In in = new In(filename);
+        int N = in.readInt();
+        int[][] blocks = new int[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                blocks[i][j] = in.readInt();
+            }
+        }
+        return new Board(blocks);
+    }
+
+    public static void main(String[] args) {
+        if (args.length >= 2) {
+            int n = Integer.parseInt(args[0]);
+            int[][] groups = args.length > 2 ? parseGroups(args, 2) : defaultGroups(n);
+            Stopwatch stopwatch = new Stopwatch();
+            build(n, groups).save(args[1]);
+            StdOut.printf("built %s in %.1f seconds%n", args[1], stopwatch.elapsedTime());
+            return;
+        }
+
+        /*----------  Unit tests  ----------*/
+
+        // rank and unrank are inverse
+        int[] cell = new int[4];
+        for (int r = 0; r < placements(9, 4); r++) {
+            unrank(r, cell, 9);
+            assert rank(cell, 9) == r : r;
+        }
+
+        // every entry is exact, for the 3x3 groups and a 4x4 one
+        int[][][] exact = {defaultGroups(3), {{1, 5, 6, 9}}};
+        for (int[][] groups : exact) {
+            int n = groups == exact[0] ? 3 : 4;
+            PatternDatabase built = build(n, groups);
+            for (int g = 0; g < groups.length; g++) {
+                int[] table = exactTable(n, groups[g]);
+                for (int r = 0; r < table.length; r++) {
+                    int entry = built.tables.get(built.offset[g] + r) & 0xFF;
+                    assert entry == table[r] : java.util.Arrays.toString(groups[g]) + " " + r + ": " + entry + " " + table[r];
+                }
+            }
+        }
+
+        PatternDatabase db = build(3, defaultGroups(3));
+        int[][] goal = {{1, 2, 3}, {4, 5, 6}, {7, 8, 0}};
+        assert db.estimate(new Board(goal)) == 0;
+
+        // admissible, and at least Manhattan, on boards with known solutions
+        String[] puzzles = {"puzzle3x3-04.txt", "puzzle3x3-10.txt", "puzzle3x3-20.txt", "puzzle3x3-28.txt", "puzzle3x3-31.txt"};
+        int[] moves = {4, 10, 20, 28, 31};
+        for (int i = 0; i < puzzles.length; i++) {
+            Board board = readBoard("8puzzle/" + puzzles[i]);
+            int estimate = db.estimate(board);
+            assert estimate <= moves[i] : puzzles[i] + " " + estimate;
+            assert estimate >= board.manhattan() : puzzles[i] + " " + estimate;
+            for (Solver.Mode mode : Solver.Mode.values()) {
+                assert new Solver(board, mode, db).moves() == moves[i] : puzzles[i] + " " + mode;
+            }
+        }
+
+        // estimates do not allocate once a thread has its scratch array
+        Board start = readBoard("8puzzle/puzzle3x3-31.txt");
+        db.estimate(start);
+        long before = allocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            db.estimate(start);
+        }
+        long after = allocatedBytes();
+        assert before < 0 || after - before < 1000 : (after - before) + " bytes for 1000 estimates";
+
+        // a saved and mapped database gives the same estimates
+        try {
+            java.io.File file = java.io.File.createTempFile("pdb", ".bin");
+            file.deleteOnExit();
+            db.save(file.getPath());
+            PatternDatabase mapped = load(file.getPath());
+            for (String puzzle : puzzles) {
+                Board board = readBoard("8puzzle/" + puzzle);
+                assert mapped.estimate(board) == db.estimate(board) : puzzle;
+            }
+        } catch (IOException e) {
+            throw new java.lang.RuntimeException(e);
+        }
+
+        System.out.println("All tests passed :-)");
+    }
+}
@@ -1,15 +1,43 @@
+import java.util.HashMap;
 import java.util.Iterator;
-import edu.princeton.cs.algs4.MinPQ;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.In;
 
 
 public class Solver {
-    private MinPQ<SearchNode> initialHeap = new MinPQ<SearchNode>();
-    private MinPQ<SearchNode> twinHeap = new MinPQ<SearchNode>();
-    private SearchNode goalNode;
+    // iterative deepening returns this from a search that reached the goal
+    private static final int FOUND = -1;
+
+    // boards from the initial board to the goal, once solved
+    private Board[] path;
     private boolean isSolvable;
+    private int expanded;
+    private int generated;
     private boolean verbose = false;
+    private Heuristic heuristic;
+
+    // bidirectional search: fewest moves of any path found so far, through
+    // the board where the two searches met
+    private volatile int shortest = Integer.MAX_VALUE;
+    private SearchNode meetForward;
+    private SearchNode meetBackward;
+    private volatile boolean done;
+
+    /**
+     *
+     * Search algorithm. ASTAR keeps every generated board in memory and
+     * is the fastest on boards it can hold. IDASTAR runs depth-first searches
+     * bounded by moves + estimate, raising the bound to the smallest
+     * priority that exceeded it each round. It re-expands boards, but only
+     * keeps the current path, so memory is linear in the solution length.
+     * BIDIRECTIONAL runs A* forward from the initial board and backward
+     * from the goal board on two threads, and stops once neither can find a
+     * shorter path than the best one through a board both have reached.
+     *
+     */
+    public enum Mode { ASTAR, IDASTAR, BIDIRECTIONAL }
 
     /**
      *
@@ -19,10 +47,12 @@ public class Solver {
      * reach this specific board.
      *
      */
-    private static final class SearchNode implements Comparable<SearchNode> {
-        private Board board;
-        private SearchNode previous;
-        private int moves;
+    private static final class SearchNode {
+        private final Board board;
+        private final SearchNode previous;
+        private final int moves;
+        private final int estimate;
+        private final int priority;
 
         /**
          *
@@ -31,16 +61,17 @@ public class Solver {
          * @param board specific board for this search node
          * @param previous link to parent node
          * @param moves number of moves since start to reach this node
+         * @param estimate lower bound on the moves left from this node
          *
          */
-        public SearchNode(Board board, SearchNode previous, int moves) {
+        public SearchNode(Board board, SearchNode previous, int moves, int estimate) {
             this.board = board;
             this.previous = previous;
             this.moves = moves;
+            this.estimate = estimate;
+            this.priority = moves + estimate;
         }
 
-
-
         /**
          *
          * Critical priority function for determining priority
@@ -53,108 +84,396 @@ public class Solver {
          *                     to their goal positions + number of moves.
          *
          * Total moves to solve the puzzle for a given search node is at least
-         * manhattan or priority function.
+         * manhattan or priority function. The estimate comes from the
+         * Solver's Heuristic, Manhattan unless another one is given. Both
+         * are fixed when the node is created.
          *
          */
         public int priority() {
-            return moves + board.manhattan();
+            return priority;
         }
 
         /**
          *
-         * Compares two search nodes.
+         * Position of this node in the order nodes are expanded: by priority,
+         * then by estimate, so that of two nodes with equal priority the one
+         * with more moves, nearer the goal, comes first. The estimate is never
+         * above the priority, so the pairs are numbered row by row along a
+         * triangle.
          *
-         * @param  that The other search node.
+         */
+        public int order() {
+            return priority * (priority + 1) / 2 + estimate;
+        }
+
+    }
+
+    /**
+     *
+     * Open list and closed set of one A* search. The open list is a
+     * BucketQueue indexed by SearchNode.order(): priorities are small
+     * integers, so inserting and removing take constant time instead of the
+     * logarithmic time of a binary heap. best maps every board generated so
+     * far to the node that reached it in the fewest moves. A neighbor is only
+     * inserted if it improves on that, and a node taken off the open list is
+     * dropped if a shorter path to its board was found after it was
+     * inserted. Manhattan distance and pattern databases are consistent:
+     * a move changes the estimate by at most one. So the first time a board
+     * is expanded its move count is optimal and the board is never expanded
+     * again.
+     *
+     */
+    private static final class Frontier {
+        private final Heuristic heuristic;
+        private BucketQueue<SearchNode> open = new BucketQueue<SearchNode>();
+        private final Map<Board, SearchNode> best;
+        private int expanded;
+        private int generated;
+
+        public Frontier(Heuristic heuristic, Map<Board, SearchNode> best) {
+            this.heuristic = heuristic;
+            this.best = best;
+        }
+
+        /**
+         *
+         * @return The new node, or null if the board has already been
+         *         reached in as few moves.
+         *
+         */
+        public SearchNode insert(Board board, SearchNode previous, int moves) {
+            SearchNode old = best.get(board);
+            if (old != null && old.moves <= moves) {
+                return null;
+            }
+            // only boards that are kept pay for an estimate
+            SearchNode node = new SearchNode(board, previous, moves, heuristic.estimate(board));
+            best.put(board, node);
+            open.insert(node, node.order());
+            generated++;
+            return node;
+        }
+
+        /**
+         *
+         * @return The open node with the smallest priority, skipping nodes
+         *         whose board has since been reached in fewer moves; null if
+         *         there are no open nodes left.
          *
          */
-        public int compareTo(SearchNode that) {
-            int this_score = this.priority();
-            int that_score = that.priority();
-            if (this_score < that_score) {
-                return -1;
-            } else if (this_score > that_score) {
-                return 1;
+        public SearchNode delMin() {
+            while (!open.isEmpty()) {
+                SearchNode node = open.delMin();
+                if (best.get(node.board) == node) {
+                    return node;
+                }
             }
-            return 0;
+            return null;
         }
 
+        public void expand(SearchNode current) {
+            expanded++;
+            for (Board neighbor : current.board.neighbors()) {
+                insert(neighbor, current, current.moves + 1);
+            }
+        }
     }
 
 
     /**
      *
-     * Find a solution to the initial board (using the A* algorithm). A twin
-     * board is created and solved in parallel because the initial board may not
-     * be solvable and if this is the case the twin board will be solvable.
-     * The boards are inserted onto their respective heaps and the solve method
-     * recurses on their neighbors.
+     * Find a solution to the initial board (using the A* algorithm). Whether
+     * the initial board can be solved at all is decided first from the parity
+     * of its permutation, so only solvable boards are searched. The boards are
+     * inserted onto the open list and the solve method recurses on their
+     * neighbors.
      *
      * @param initialBoard the starting board.
      *
      */
     public Solver(Board initialBoard) {
+        this(initialBoard, Mode.ASTAR);
+    }
+
+    /**
+     *
+     * Find a solution to the initial board with the given search algorithm,
+     * estimating the moves left by Manhattan distance.
+     *
+     * @param initialBoard the starting board.
+     * @param mode the search algorithm.
+     *
+     */
+    public Solver(Board initialBoard, Mode mode) {
+        this(initialBoard, mode, Heuristic.MANHATTAN);
+    }
+
+    /**
+     *
+     * Find a solution to the initial board with the given search algorithm
+     * and lower bound on the moves left from each board.
+     *
+     * @param initialBoard the starting board.
+     * @param mode the search algorithm.
+     * @param heuristic estimate of the moves left, for example
+     *        Heuristic.MANHATTAN or a PatternDatabase.
+     *
+     */
+    public Solver(Board initialBoard, Mode mode, Heuristic heuristic) {
         if (initialBoard == null) throw new java.lang.NullPointerException();
-        SearchNode initial = new SearchNode(initialBoard, null, 0);
-        SearchNode twin = new SearchNode(initialBoard.twin(), null, 0);
+        if (mode == null) throw new java.lang.NullPointerException();
+        if (heuristic == null) throw new java.lang.NullPointerException();
+        this.heuristic = heuristic;
         if (verbose) {
-            System.out.println("Starting board\n" + initial.board);
-            System.out.println("Twin\n" + twin.board);
+            System.out.println("Starting board\n" + initialBoard);
+        }
+        isSolvable = initialBoard.isSolvable();
+        if (!isSolvable) {
+            return;
+        }
+        if (mode == Mode.IDASTAR) {
+            solveIterativeDeepening(initialBoard);
+        } else if (mode == Mode.BIDIRECTIONAL) {
+            solveBidirectional(initialBoard);
+        } else {
+            solve(initialBoard);
         }
-        initialHeap.insert(initial);
-        twinHeap.insert(twin);
-        solve();
     }
 
     /**
      *
      * The main A* algorithm. The node with the smallest priority is removed
-     * from the heap and we insert its neighbors on to the heap. We perform this
-     * for both initial board and twin board. We stop when the initial or twin
-     * board reaches the goal board.
+     * from the open list and we insert its neighbors on to it, unless their
+     * board has already been reached in as few moves. We stop when the goal
+     * board is removed from the open list.
      *
      */
-    private void solve() {
+    private void solve(Board initialBoard) {
+        Frontier frontier = new Frontier(heuristic, new HashMap<Board, SearchNode>());
+        frontier.insert(initialBoard, null, 0);
+
         while (true) {
             // dequeue node with smallest priority
-            SearchNode initial = initialHeap.delMin();
-            SearchNode twin = twinHeap.delMin();
+            SearchNode current = frontier.delMin();
 
-            if (initial.board.isGoal()) {
+            if (current.board.isGoal()) {
                 // solved
-                goalNode = initial;
-                isSolvable = true;
+                path = new Board[current.moves + 1];
+                for (SearchNode cur = current; cur != null; cur = cur.previous) {
+                    path[cur.moves] = cur.board;
+                }
                 break;
-            } else if (twin.board.isGoal()) {
-                // twin solved
-                isSolvable = false;
+            }
+
+            // enheap neighbors
+            frontier.expand(current);
+        }
+
+        expanded = frontier.expanded;
+        generated = frontier.generated;
+    }
+
+    /**
+     *
+     * Bidirectional A*. The forward search uses the Solver's heuristic to
+     * the goal board and the backward search uses Manhattan distance to the
+     * initial board. Each search keeps its best nodes in a ConcurrentHashMap
+     * keyed on Board, whose equals and hashCode compare the packed tiles, and
+     * looks every board it keeps up in the other search's map. A board
+     * reached by both gives a path of the sum of their moves.
+     *
+     * The smallest priority on either open list is a lower bound on any path
+     * neither search has completed yet, so a search stops both as soon as its
+     * smallest priority is no less than the shortest path found.
+     *
+     */
+    private void solveBidirectional(Board initialBoard) {
+        Map<Board, SearchNode> forwardBest = new ConcurrentHashMap<Board, SearchNode>();
+        Map<Board, SearchNode> backwardBest = new ConcurrentHashMap<Board, SearchNode>();
+        final Frontier forward = new Frontier(heuristic, forwardBest);
+        final Frontier backward = new Frontier(new ManhattanTo(initialBoard), backwardBest);
+
+        SearchNode start = forward.insert(initialBoard, null, 0);
+        SearchNode goal = backward.insert(goalBoard(initialBoard.dimension()), null, 0);
+        if (start.board.equals(goal.board)) {
+            meet(start, goal);
+        }
+
+        final Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    searchDirection(backward, forward, false);
+                } catch (Throwable e) {
+                    failure[0] = e;
+                    done = true;
+                }
+            }
+        });
+        thread.start();
+        try {
+            searchDirection(forward, backward, true);
+        } finally {
+            done = true;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new java.lang.IllegalStateException(e);
+            }
+        }
+        if (failure[0] != null) {
+            throw new java.lang.IllegalStateException(failure[0]);
+        }
+
+        path = new Board[shortest + 1];
+        for (SearchNode cur = meetForward; cur != null; cur = cur.previous) {
+            path[cur.moves] = cur.board;
+        }
+        for (SearchNode cur = meetBackward; cur != null; cur = cur.previous) {
+            path[shortest - cur.moves] = cur.board;
+        }
+
+        expanded = forward.expanded + backward.expanded;
+        generated = forward.generated + backward.generated;
+    }
+
+    /**
+     *
+     * One direction of the bidirectional search, run until either direction
+     * is done.
+     *
+     */
+    private void searchDirection(Frontier own, Frontier other, boolean isForward) {
+        while (!done) {
+            SearchNode current = own.delMin();
+            if (current == null || current.priority() >= shortest) {
+                done = true;
+                return;
+            }
+
+            own.expanded++;
+            for (Board neighbor : current.board.neighbors()) {
+                SearchNode node = own.insert(neighbor, current, current.moves + 1);
+                if (node == null) continue;
+                SearchNode met = other.best.get(neighbor);
+                if (met == null) continue;
+                if (isForward) {
+                    meet(node, met);
+                } else {
+                    meet(met, node);
+                }
+            }
+        }
+    }
+
+    private synchronized void meet(SearchNode forward, SearchNode backward) {
+        int moves = forward.moves + backward.moves;
+        if (moves < shortest) {
+            meetForward = forward;
+            meetBackward = backward;
+            shortest = moves;
+        }
+    }
+
+    private static Board goalBoard(int n) {
+        int[][] blocks = new int[n][n];
+        for (int k = 0; k < n * n; k++) {
+            blocks[k / n][k % n] = (k + 1) % (n * n);
+        }
+        return new Board(blocks);
+    }
+
+    /**
+     *
+     * Sum of the Manhattan distances between blocks and their cells in a
+     * target board, the estimate of the backward search.
+     *
+     */
+    private static final class ManhattanTo implements Heuristic {
+        private final int n;
+        private final int[] cellOf;
+
+        public ManhattanTo(Board target) {
+            n = target.dimension();
+            cellOf = new int[n * n];
+            for (int cell = 0; cell < n * n; cell++) {
+                cellOf[target.tileAt(cell)] = cell;
+            }
+        }
+
+        public int estimate(Board board) {
+            int distance = 0;
+            for (int cell = 0; cell < n * n; cell++) {
+                int value = board.tileAt(cell);
+                if (value == 0) continue;
+                int target = cellOf[value];
+                distance += Math.abs(cell / n - target / n) + Math.abs(cell % n - target % n);
+            }
+            return distance;
+        }
+    }
+
+    /**
+     *
+     * IDA*. The current path doubles as the stack of boards, and a move
+     * straight back to the previous board is never tried.
+     *
+     */
+    private void solveIterativeDeepening(Board initialBoard) {
+        int bound = heuristic.estimate(initialBoard);
+        path = new Board[bound + 1];
+        path[0] = initialBoard;
+        while (true) {
+            int next = idaSearch(0, bound);
+            if (next == FOUND) {
                 break;
-            } else {
-                // enheap neighbors
-                enheapNeighbors(initialHeap, initial);
-                enheapNeighbors(twinHeap, twin);
             }
+            bound = next;
         }
     }
 
     /**
      *
-     * Inserts neighboring boards of a current node's board, provided the
-     * neighbor is not equal to the current node's parent board. If the current
-     * board is the initial board, ie took 0 moves, it has no parent and we
-     * ignore this check. Here we always increment the number of moves based on
-     * the number of moves to get to the parent.
+     * Depth-first search below path[moves].
      *
-     * @param heap Min heap to insert onto (inital/twin).
-     * @param current The current select node.
+     * @return FOUND once the goal is on the path, with path trimmed to end
+     *         there; otherwise the smallest priority above bound.
      *
      */
-    private void enheapNeighbors(MinPQ<SearchNode> heap, SearchNode current) {
-        for (Board neighbor : current.board.neighbors()) {
-            if (current.moves == 0 || neighbor != current.previous.board) {
-                SearchNode neighborNode = new SearchNode(neighbor, current, current.moves + 1);
-                heap.insert(neighborNode);
+    private int idaSearch(int moves, int bound) {
+        Board board = path[moves];
+        int priority = moves + heuristic.estimate(board);
+        if (priority > bound) {
+            return priority;
+        }
+        if (board.isGoal()) {
+            Board[] solution = new Board[moves + 1];
+            System.arraycopy(path, 0, solution, 0, moves + 1);
+            path = solution;
+            return FOUND;
+        }
+
+        expanded++;
+        int min = Integer.MAX_VALUE;
+        for (Board neighbor : board.neighbors()) {
+            if (moves > 0 && neighbor.equals(path[moves - 1])) {
+                continue;
+            }
+            generated++;
+            if (moves + 1 == path.length) {
+                Board[] longer = new Board[2 * path.length];
+                System.arraycopy(path, 0, longer, 0, path.length);
+                path = longer;
+            }
+            path[moves + 1] = neighbor;
+            int next = idaSearch(moves + 1, bound);
+            if (next == FOUND) {
+                return FOUND;
             }
+            min = Math.min(min, next);
         }
+        return min;
     }
 
     /**
@@ -166,6 +485,26 @@ public class Solver {
         return isSolvable;
     }
 
+    /**
+     *
+     * @return Number of boards expanded, counting every round with IDA*;
+     *         0 if unsolvable.
+     *
+     */
+    public int expanded() {
+        return expanded;
+    }
+
+    /**
+     *
+     * @return Number of neighbor boards generated and kept, counted the same
+     *         way as expanded().
+     *
+     */
+    public int generated() {
+        return generated;
+    }
+
     /**
      *
      * @return min number of moves to solve initial board; -1 if unsolvable
@@ -173,7 +512,7 @@ public class Solver {
      */
     public int moves() {
         if (isSolvable) {
-            return goalNode.moves;
+            return path.length - 1;
         } else {
             return -1;
         }
@@ -198,29 +537,10 @@ public class Solver {
         }
 
         private class PartialsIterator implements Iterator<Board> {
-            private int i;
-            private int totalBoards = goalNode.moves + 1; // +1 for first board
-            private Board[] partials = new Board[totalBoards];
-
-            /**
-             *
-             * Constructor creates array of moves tracing back from goalBoard
-             * to first node.
-             *
-             */
-            public PartialsIterator() {
-                i = 1;
-                SearchNode cur = goalNode;
-                while (i < totalBoards + 1) {
-                    partials[totalBoards - i++] = cur.board;
-                    cur = cur.previous;
-                }
-                i = 0;
-            }
-
+            private int i = 0;
 
             public boolean hasNext() {
-                return partials.length > i && partials[i] != null;
+                return i < path.length;
             }
 
             public void remove() {
@@ -232,7 +552,7 @@ public class Solver {
                 if (!hasNext()) {
                     throw new java.util.NoSuchElementException();
                 }
-                return partials[i++];
+                return path[i++];
             }
         }
 
@@ -253,14 +573,22 @@ public class Solver {
 
         Board initial = new Board(blocks);
 
-        // solve the puzzle
-        Solver solver = new Solver(initial);
+        // solve the puzzle, optionally with another algorithm, ASTAR, IDASTAR
+        // or BIDIRECTIONAL, and a pattern database file built by
+        // PatternDatabase
+        Mode mode = Mode.ASTAR;
+        Heuristic heuristic = Heuristic.MANHATTAN;
+        if (args.length > 1) mode = Mode.valueOf(args[1].toUpperCase());
+        if (args.length > 2) heuristic = PatternDatabase.load(args[2]);
+        Solver solver = new Solver(initial, mode, heuristic);
 
         // print solution to standard output
-        if (!solver.isSolvable())
+        if (!solver.isSolvable()) {
             StdOut.println("No solution possible " + solver.moves());
-        else {
+            StdOut.println("Expanded " + solver.expanded() + ", generated " + solver.generated());
+        } else {
             StdOut.println("Minimum number of moves = " + solver.moves());
+            StdOut.println("Expanded " + solver.expanded() + ", generated " + solver.generated());
             int i = 0;
             for (Board board : solver.solution()) {
                 System.out.println(i++);
@@ -0,0 +1,177 @@
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import edu.princeton.cs.algs4.In;
+
+/**
+ *
+ * Times Solver on the puzzles in the 8puzzle directory. Every puzzle file
+ * is read into a Board once, up front. Each puzzle is then solved once to
+ * warm up, rounds times for timing, and once more to measure memory. One
+ * row is printed per puzzle:
+ *
+ *  moves, expanded, generated  from the Solver
+ *  median, min                 solve latency in milliseconds
+ *  peak MB                     sum of the peak usage of the heap pools during
+ *                              the memory run, after a full collection
+ *  alloc MB, MB/s              bytes allocated per solve, from the HotSpot
+ *                              per-thread allocation counter
+ *                              (com.sun.management.ThreadMXBean), and that
+ *                              over the median latency; NaN on JVMs without
+ *                              the counter. BIDIRECTIONAL only counts the
+ *                              calling thread's half.
+ *
+ * Saving the output and passing it back as baseline adds a column with the
+ * ratio of each median latency to the baseline's, so a change to the
+ * heuristic or the data structures can be compared puzzle by puzzle.
+ *
+ *     java SolverBenchmark [mode] [rounds] [regex] [pattern database] [baseline]
+ *
+ * mode is ASTAR (default), IDASTAR or BIDIRECTIONAL, and regex selects
+ * puzzle file names; the default leaves out the 4x4 puzzles of more than
+ * 40 moves, which take minutes with Manhattan. Pass - to skip an argument.
+ *
+ */
+public class SolverBenchmark {
+
+    private static final String DIRECTORY = "8puzzle";
+    private static final String DEFAULT_PUZZLES = "puzzle(\\d\\d|[23]x[23]-.*|4x4-([0-3]\\d|40))\\.txt";
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long peakHeapBytes(boolean reset) {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            if (reset) {
+                pool.resetPeakUsage();
+            } else {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static Board readBoard(File file) {
+        In in = new In(file);
+        int N = in.readInt();
+        int[][] blocks = new int[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                blocks[i][j] = in.readInt();
+            }
+        }
+        return new Board(blocks);
+    }
+
+    /**
+     *
+     * Median latencies by puzzle from an earlier run's output.
+     *
+     */
+    private static Map<String, Double> readBaseline(String filename) {
+        Map<String, Double> medians = new HashMap<String, Double>();
+        In in = new In(filename);
+        while (in.hasNextLine()) {
+            String[] fields = in.readLine().trim().split("\\s+");
+            if (fields.length >= 6 && fields[0].endsWith(".txt")) {
+                medians.put(fields[0], Double.parseDouble(fields[5]));
+            }
+        }
+        return medians;
+    }
+
+    public static void main(String[] args) {
+        Solver.Mode mode = Solver.Mode.ASTAR;
+        int rounds = 5;
+        String puzzles = DEFAULT_PUZZLES;
+        Heuristic heuristic = Heuristic.MANHATTAN;
+        Map<String, Double> baseline = null;
+        if (args.length > 0 && !args[0].equals("-")) mode = Solver.Mode.valueOf(args[0].toUpperCase());
+        if (args.length > 1 && !args[1].equals("-")) rounds = Integer.parseInt(args[1]);
+        if (args.length > 2 && !args[2].equals("-")) puzzles = args[2];
+        if (args.length > 3 && !args[3].equals("-")) heuristic = PatternDatabase.load(args[3]);
+        if (args.length > 4 && !args[4].equals("-")) baseline = readBaseline(args[4]);
+        if (rounds < 1) {
+            throw new java.lang.IllegalArgumentException(
+                "rounds must be at least 1\nusage: java SolverBenchmark [mode] [rounds] [regex] [pattern database] [baseline]");
+        }
+
+        // load every puzzle once
+        File[] files = new File(DIRECTORY).listFiles();
+        if (files == null) {
+            throw new java.lang.IllegalArgumentException("no directory " + DIRECTORY);
+        }
+        Arrays.sort(files);
+        List<String> names = new ArrayList<String>();
+        List<Board> boards = new ArrayList<Board>();
+        for (File file : files) {
+            if (file.getName().matches(puzzles)) {
+                names.add(file.getName());
+                boards.add(readBoard(file));
+            }
+        }
+
+        System.out.printf("%s, %d rounds, %s%n", mode, rounds, heuristic == Heuristic.MANHATTAN ? "manhattan" : args[3]);
+        System.out.printf("%-26s %3s %6s %10s %10s %10s %10s %8s %9s %9s%s%n",
+                          "puzzle", "N", "moves", "expanded", "generated", "median ms", "min ms",
+                          "peak MB", "alloc MB", "MB/s", baseline == null ? "" : "   vs base");
+
+        double totalMedian = 0;
+        double totalBase = 0;
+        for (int p = 0; p < boards.size(); p++) {
+            Board board = boards.get(p);
+
+            // warm up
+            Solver solver = new Solver(board, mode, heuristic);
+
+            double[] millis = new double[rounds];
+            long before = allocatedBytes();
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                solver = new Solver(board, mode, heuristic);
+                millis[r] = (System.nanoTime() - start) / 1e6;
+            }
+            long after = allocatedBytes();
+            Arrays.sort(millis);
+            double median = millis[rounds / 2];
+
+            // memory, in a run of its own so the collection is not timed
+            System.gc();
+            peakHeapBytes(true);
+            new Solver(board, mode, heuristic);
+            double peakMB = peakHeapBytes(false) / 1e6;
+
+            double allocMB = before < 0 ? Double.NaN : (after - before) / 1e6 / rounds;
+            String versus = "";
+            if (baseline != null) {
+                Double base = baseline.get(names.get(p));
+                if (base != null) {
+                    versus = String.format("   %8.2fx", median / base);
+                    totalMedian += median;
+                    totalBase += base;
+                }
+            }
+            System.out.printf("%-26s %3d %6d %10d %10d %10.2f %10.2f %8.1f %9.1f %9.0f%s%n",
+                              names.get(p), board.dimension(), solver.moves(), solver.expanded(),
+                              solver.generated(), median, millis[0], peakMB, allocMB,
+                              allocMB / (median / 1000), versus);
+        }
+
+        if (totalBase > 0) {
+            System.out.printf("total median vs base: %.2fx%n", totalMedian / totalBase);
+        }
+    }
+}
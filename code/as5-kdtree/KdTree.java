@@ -1,18 +1,19 @@
 import java.util.Comparator;
 import java.util.Iterator;
-import edu.princeton.cs.algs4.SET;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.Point2D;
+import edu.princeton.cs.algs4.Queue;
 import edu.princeton.cs.algs4.RectHV;
 import edu.princeton.cs.algs4.StdDraw;
 import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
 
 
 public class KdTree {
     private Node root;
     private int size = 0;
-    private Point2D nearestPoint;
-    private double nearestDist = Double.POSITIVE_INFINITY;
-    private boolean verbose = false;
 
     private class Node {
         private Point2D key;
@@ -29,6 +30,183 @@ public class KdTree {
         // construct an empty set of points
     }
 
+    // subtrees with fewer points are built on the current thread
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     *
+     * Construct the set of the given points, ignoring duplicates, as a
+     * balanced tree. Each node is the median of its points in the node's
+     * dimension, found by quickselect, so the height is about lg N whatever
+     * the order of the points, where repeated insert() degrades on sorted or
+     * clustered input. Points with the same coordinate as a median go to its
+     * right, as insert() puts them.
+     *
+     * The coordinates are copied into two double[] so that partitioning
+     * scans primitive arrays instead of following a reference per point.
+     * Subtrees of at least PARALLEL_THRESHOLD points are built as fork/join
+     * tasks in the common pool. Expected time is N lg N and the recursion
+     * depth is lg N.
+     *
+     */
+    public KdTree(Point2D[] points) {
+        if (points == null) {
+            throw new java.lang.NullPointerException();
+        }
+        Builder builder = new Builder(points);
+        root = ForkJoinPool.commonPool().invoke(new Build(builder, 0, points.length, true));
+        size = points.length - builder.duplicates.get();
+    }
+
+    /**
+     *
+     * The points being loaded, with their coordinates alongside, all
+     * permuted together.
+     *
+     */
+    private static final class Builder {
+        private final Point2D[] points;
+        private final double[] xs;
+        private final double[] ys;
+        private final java.util.concurrent.atomic.AtomicInteger duplicates = new java.util.concurrent.atomic.AtomicInteger();
+
+        public Builder(Point2D[] points) {
+            this.points = points.clone();
+            xs = new double[points.length];
+            ys = new double[points.length];
+            for (int i = 0; i < points.length; i++) {
+                if (points[i] == null) throw new java.lang.NullPointerException();
+                xs[i] = points[i].x();
+                ys[i] = points[i].y();
+            }
+        }
+
+        private void exch(int i, int j) {
+            Point2D point = points[i];
+            points[i] = points[j];
+            points[j] = point;
+            double x = xs[i];
+            xs[i] = xs[j];
+            xs[j] = x;
+            double y = ys[i];
+            ys[i] = ys[j];
+            ys[j] = y;
+        }
+
+        /**
+         *
+         * Quickselect of the median of [lo, hi) by x when isVertical and by
+         * y otherwise, with median-of-3 pivots and 3-way partitioning.
+         *
+         * @return Index m of the median, with [lo, m) strictly smaller than
+         *         it and [m + 1, hi) no smaller.
+         *
+         */
+        public int partition(int lo, int hi, boolean isVertical) {
+            double[] c = isVertical ? xs : ys;
+            int k = lo + (hi - lo) / 2;
+            while (hi - lo > 1) {
+                int mid = lo + (hi - lo) / 2;
+                double x = c[lo];
+                double y = c[mid];
+                double z = c[hi - 1];
+                double pivot = Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+
+                // [lo, lt) < pivot, [lt, i) == pivot, [gt, hi) > pivot
+                int lt = lo, i = lo, gt = hi;
+                while (i < gt) {
+                    if (c[i] < pivot)      exch(lt++, i++);
+                    else if (c[i] > pivot) exch(i, --gt);
+                    else                   i++;
+                }
+
+                if (k < lt) {
+                    hi = lt;
+                } else if (k >= gt) {
+                    lo = gt;
+                } else {
+                    // earlier rounds left only smaller points before lo and
+                    // larger ones from hi, so lt is the first point equal to
+                    // the median
+                    return lt;
+                }
+            }
+            return k;
+        }
+
+        /**
+         *
+         * Moves the copies of the point at m, which partition() left among
+         * the points equal to it in one dimension, to just after m.
+         *
+         * @return Number of copies.
+         *
+         */
+        public int gatherDuplicates(int m, int hi, boolean isVertical) {
+            double[] c = isVertical ? xs : ys;
+            int copies = 0;
+            for (int i = m + 1; i < hi && c[i] == c[m]; i++) {
+                if (xs[i] == xs[m] && ys[i] == ys[m]) {
+                    exch(m + 1 + copies, i);
+                    copies++;
+                }
+            }
+            if (copies > 0) {
+                duplicates.addAndGet(copies);
+            }
+            return copies;
+        }
+    }
+
+    /**
+     *
+     * Builds the subtree of [lo, hi), splitting the left half off as a task
+     * of its own while the range is large.
+     *
+     */
+    private class Build extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final Builder builder;
+        private final int lo, hi;
+        private final boolean isVertical;
+
+        public Build(Builder builder, int lo, int hi, boolean isVertical) {
+            this.builder = builder;
+            this.lo = lo;
+            this.hi = hi;
+            this.isVertical = isVertical;
+        }
+
+        protected Node compute() {
+            if (hi - lo < PARALLEL_THRESHOLD) {
+                return build(builder, lo, hi, isVertical);
+            }
+
+            int m = builder.partition(lo, hi, isVertical);
+            int copies = builder.gatherDuplicates(m, hi, isVertical);
+            Node node = new Node(builder.points[m], m + 1);
+            Build left = new Build(builder, lo, m, !isVertical);
+            left.fork();
+            node.right = new Build(builder, m + 1 + copies, hi, !isVertical).compute();
+            node.left = left.join();
+            return node;
+        }
+    }
+
+    private Node build(Builder builder, int lo, int hi, boolean isVertical) {
+        if (lo >= hi) {
+            return null;
+        }
+        // nodes are labelled by position, in place of insertion order
+        int m = builder.partition(lo, hi, isVertical);
+        int copies = builder.gatherDuplicates(m, hi, isVertical);
+        Node node = new Node(builder.points[m], m + 1);
+        node.left = build(builder, lo, m, !isVertical);
+        node.right = build(builder, m + 1 + copies, hi, !isVertical);
+        return node;
+    }
+
     public boolean isEmpty()  {
         // is the set empty?
         return size == 0;
@@ -219,125 +397,411 @@ public class KdTree {
     }
 
 
+    /**
+     *
+     * A nearest neighbor in the set to query; null if the set is empty.
+     *
+     * The search state lives in the arguments and return value of the
+     * recursion rather than in fields, so any number of threads may query the
+     * same tree at once as long as none inserts. Each subtree's rectangle is
+     * passed down as its four bounds, starting from the whole plane, and a
+     * subtree is skipped when the squared distance from query to its
+     * rectangle is no less than that of the best found so far. Nothing is
+     * allocated.
+     *
+     */
     public Point2D nearest(Point2D query) {
-        // a nearest neighbor in the set to point p; null if the set is empty
         if (isEmpty()) {
             return null;
         }
-        if (verbose) {
-            System.out.println("\nFind nearest to " + query);
+        double inf = Double.POSITIVE_INFINITY;
+        return nearest(root, true, query.x(), query.y(), -inf, -inf, inf, inf, root).key;
+    }
+
+    private Node nearest(Node current, boolean isVertical, double x, double y,
+                         double xmin, double ymin, double xmax, double ymax, Node best) {
+        if (current == null) {
+            return best;
         }
-        nearest(root, true, query, 0, 0, 1, 1);
-        this.nearestDist = Double.POSITIVE_INFINITY;
-        return this.nearestPoint;
+        if (distanceSquaredTo(x, y, xmin, ymin, xmax, ymax) >= distanceSquaredTo(best, x, y)) {
+            return best;
+        }
+
+        if (distanceSquaredTo(current, x, y) < distanceSquaredTo(best, x, y)) {
+            best = current;
+        }
+
+        // search the side of the query first, then the other side, which
+        // returns at once unless its rectangle could still hold a closer point
+        if (isVertical) {
+            double split = current.key.x();
+            if (x < split) {
+                best = nearest(current.left, false, x, y, xmin, ymin, split, ymax, best);
+                best = nearest(current.right, false, x, y, split, ymin, xmax, ymax, best);
+            } else {
+                best = nearest(current.right, false, x, y, split, ymin, xmax, ymax, best);
+                best = nearest(current.left, false, x, y, xmin, ymin, split, ymax, best);
+            }
+        } else {
+            double split = current.key.y();
+            if (y < split) {
+                best = nearest(current.left, true, x, y, xmin, ymin, xmax, split, best);
+                best = nearest(current.right, true, x, y, xmin, split, xmax, ymax, best);
+            } else {
+                best = nearest(current.right, true, x, y, xmin, split, xmax, ymax, best);
+                best = nearest(current.left, true, x, y, xmin, ymin, xmax, split, best);
+            }
+        }
+        return best;
     }
 
-    private void nearest(Node current, boolean isVertical, Point2D query, double xmin, double ymin, double xmax, double ymax) {
+    /**
+     *
+     * The k points in the set nearest to query, nearest first; all of them if
+     * the set holds fewer than k.
+     *
+     * Candidates are kept in a max-heap bounded to k entries, keyed on
+     * squared distance, and a subtree is skipped when its rectangle is no
+     * closer than the farthest of k candidates, as in nearest().
+     *
+     */
+    public Iterable<Point2D> nearest(Point2D query, int k) {
+        if (query == null) {
+            throw new java.lang.NullPointerException();
+        }
+        if (k < 1) {
+            throw new java.lang.IllegalArgumentException();
+        }
+
+        BoundedMaxHeap heap = new BoundedMaxHeap(Math.min(k, size));
+        double inf = Double.POSITIVE_INFINITY;
+        nearest(root, true, query.x(), query.y(), -inf, -inf, inf, inf, heap);
 
-        if (current == null) {
+        Point2D[] sorted = new Point2D[heap.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = heap.delMax();
+        }
+        return java.util.Arrays.asList(sorted);
+    }
+
+    private void nearest(Node current, boolean isVertical, double x, double y,
+                         double xmin, double ymin, double xmax, double ymax, BoundedMaxHeap heap) {
+        if (current == null || distanceSquaredTo(x, y, xmin, ymin, xmax, ymax) >= heap.bound()) {
             return;
         }
 
-        String message = "current " + current.size + " " + current.key;
+        heap.offer(current.key, distanceSquaredTo(current, x, y));
 
-        double currentDist = query.distanceTo(current.key);
-        if (currentDist < this.nearestDist) {
-            this.nearestDist = currentDist;
-            this.nearestPoint = current.key;
-            message += " is new best dist!";
+        if (isVertical) {
+            double split = current.key.x();
+            if (x < split) {
+                nearest(current.left, false, x, y, xmin, ymin, split, ymax, heap);
+                nearest(current.right, false, x, y, split, ymin, xmax, ymax, heap);
+            } else {
+                nearest(current.right, false, x, y, split, ymin, xmax, ymax, heap);
+                nearest(current.left, false, x, y, xmin, ymin, split, ymax, heap);
+            }
+        } else {
+            double split = current.key.y();
+            if (y < split) {
+                nearest(current.left, true, x, y, xmin, ymin, xmax, split, heap);
+                nearest(current.right, true, x, y, xmin, split, xmax, ymax, heap);
+            } else {
+                nearest(current.right, true, x, y, xmin, split, xmax, ymax, heap);
+                nearest(current.left, true, x, y, xmin, ymin, xmax, split, heap);
+            }
         }
-        if (verbose) {
-            System.out.println(message);
+    }
+
+    /**
+     *
+     * Max-heap of at most capacity points keyed on squared distance. Once
+     * full, a point is only taken in place of the farthest one, and only if
+     * it is closer.
+     *
+     */
+    private static final class BoundedMaxHeap {
+        private final Point2D[] points;
+        private final double[] distances;
+        private int n = 0;
+
+        public BoundedMaxHeap(int capacity) {
+            // heap ordered entries in 1..capacity
+            points = new Point2D[capacity + 1];
+            distances = new double[capacity + 1];
         }
 
-        if (isVertical) {
-            Point2D closestPointInOtherRectangle = new Point2D(current.key.x(), query.y());
+        public int size() {
+            return n;
+        }
 
-            // left
-            if (query.x() < current.key.x()) {
-                // update nearest from left side
-                if (verbose) {
-                    System.out.println("left");
-                }
-                nearest(current.left, !isVertical, query, xmin, ymin, current.key.x(), ymax);
+        /**
+         *
+         * @return Squared distance a point has to beat to be taken: infinite
+         *         until the heap is full.
+         *
+         */
+        public double bound() {
+            if (n < points.length - 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return distances[1];
+        }
 
-                if (query.distanceTo(closestPointInOtherRectangle) < this.nearestDist) {
-                    // check right subrect as well
-                    if (verbose) {
-                        System.out.println("also check right of " + current.size);
-                    }
-                    nearest(current.right, !isVertical, query, current.key.x(), ymin, xmax, ymax);
-                } else {
-                    if (verbose) {
-                        System.out.println("didn't check right of " + current.size);
-                    }
-                }
-            } else {
-                    // update nearest from right side
-                if (verbose) {
-                    System.out.println("right");
-                }
-                nearest(current.right, !isVertical, query, current.key.x(), ymin, xmax, ymax);
+        public void offer(Point2D point, double distance) {
+            if (n < points.length - 1) {
+                n++;
+                points[n] = point;
+                distances[n] = distance;
+                swim(n);
+            } else if (distance < distances[1]) {
+                points[1] = point;
+                distances[1] = distance;
+                sink(1);
+            }
+        }
 
-                if (query.distanceTo(closestPointInOtherRectangle) < this.nearestDist) {
-                        // check left subrect as well
-                    if (verbose) {
-                        System.out.println("also check left of " + current.size);
-                    }
-                    nearest(current.left, !isVertical, query, xmin, ymin, current.key.x(), ymax);
-                } else {
-                    if (verbose) {
-                        System.out.println("didn't check left of " + current.size);
-                    }
-                }
+        public Point2D delMax() {
+            Point2D max = points[1];
+            exch(1, n);
+            points[n--] = null;
+            sink(1);
+            return max;
+        }
+
+        private void swim(int k) {
+            while (k > 1 && distances[k / 2] < distances[k]) {
+                exch(k, k / 2);
+                k = k / 2;
+            }
+        }
+
+        private void sink(int k) {
+            while (2 * k <= n) {
+                int j = 2 * k;
+                if (j < n && distances[j] < distances[j + 1]) j++;
+                if (distances[k] >= distances[j]) break;
+                exch(k, j);
+                k = j;
             }
+        }
+
+        private void exch(int i, int j) {
+            Point2D point = points[i];
+            points[i] = points[j];
+            points[j] = point;
+            double distance = distances[i];
+            distances[i] = distances[j];
+            distances[j] = distance;
+        }
+    }
 
+    /**
+     *
+     * All points in the set at distance at most r from query. A subtree is
+     * skipped when its rectangle is farther than r.
+     *
+     */
+    public Iterable<Point2D> withinRadius(Point2D query, double r) {
+        if (query == null) {
+            throw new java.lang.NullPointerException();
+        }
+        if (!(r >= 0)) {
+            throw new java.lang.IllegalArgumentException();
+        }
+
+        Queue<Point2D> found = new Queue<Point2D>();
+        double inf = Double.POSITIVE_INFINITY;
+        withinRadius(root, true, query.x(), query.y(), -inf, -inf, inf, inf, r * r, found);
+        return found;
+    }
+
+    private void withinRadius(Node current, boolean isVertical, double x, double y,
+                              double xmin, double ymin, double xmax, double ymax, double r2, Queue<Point2D> found) {
+        if (current == null || distanceSquaredTo(x, y, xmin, ymin, xmax, ymax) > r2) {
+            return;
+        }
+
+        if (distanceSquaredTo(current, x, y) <= r2) {
+            found.enqueue(current.key);
+        }
+
+        // every point within r is found whichever side is searched first
+        if (isVertical) {
+            double split = current.key.x();
+            withinRadius(current.left, false, x, y, xmin, ymin, split, ymax, r2, found);
+            withinRadius(current.right, false, x, y, split, ymin, xmax, ymax, r2, found);
         } else {
-            Point2D closestPointInOtherRectangle = new Point2D(query.x(), current.key.y());
+            double split = current.key.y();
+            withinRadius(current.left, true, x, y, xmin, ymin, xmax, split, r2, found);
+            withinRadius(current.right, true, x, y, xmin, split, xmax, ymax, r2, found);
+        }
+    }
 
-            // below
-            if (query.y() < current.key.y()) {
-                // update nearest from below side
-                if (verbose) {
-                    System.out.println("below");
-                }
-                nearest(current.left, !isVertical, query, xmin, ymin, xmax, current.key.y());
+    private static double distanceSquaredTo(Node node, double x, double y) {
+        double dx = node.key.x() - x;
+        double dy = node.key.y() - y;
+        return dx * dx + dy * dy;
+    }
 
-                if (query.distanceTo(closestPointInOtherRectangle) < this.nearestDist) {
-                    // check above subrect as well
-                    if (verbose) {
-                        System.out.println("also check above " + current.size);
-                    }
-                    nearest(current.right, !isVertical, query, xmin, current.key.y(), xmax, ymax);
-                } else {
-                    if (verbose) {
-                        System.out.println("didn't check above " + current.size);
+    /**
+     *
+     * Squared distance from (x, y) to the rectangle [xmin, xmax] x [ymin,
+     * ymax], whose bounds may be infinite; 0 inside it.
+     *
+     */
+    private static double distanceSquaredTo(double x, double y, double xmin, double ymin, double xmax, double ymax) {
+        double dx = 0;
+        double dy = 0;
+        if (x < xmin)      dx = xmin - x;
+        else if (x > xmax) dx = x - xmax;
+        if (y < ymin)      dy = ymin - y;
+        else if (y > ymax) dy = y - ymax;
+        return dx * dx + dy * dy;
+    }
+
+    private int height(Node current) {
+        if (current == null) {
+            return 0;
+        }
+        return 1 + Math.max(height(current.left), height(current.right));
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     *
+     * Checks queries on the points in filename against PointSET.
+     *
+     */
+    private static void test(String filename) throws InterruptedException {
+        In in = new In(filename);
+        final KdTree kdtree = new KdTree();
+        PointSET brute = new PointSET();
+        while (!in.isEmpty()) {
+            Point2D p = new Point2D(in.readDouble(), in.readDouble());
+            kdtree.insert(p);
+            brute.insert(p);
+        }
+        assert kdtree.size() == brute.size() : kdtree.size();
+
+        final int Q = 1000;
+        final Point2D[] queries = new Point2D[Q];
+        final double[] expected = new double[Q];
+        for (int i = 0; i < Q; i++) {
+            queries[i] = new Point2D(StdRandom.uniform(), StdRandom.uniform());
+            expected[i] = queries[i].distanceSquaredTo(brute.nearest(queries[i]));
+            assert kdtree.contains(brute.nearest(queries[i]));
+        }
+
+        // nearest, from several threads sharing the tree
+        final java.util.concurrent.atomic.AtomicInteger wrong = new java.util.concurrent.atomic.AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int round = 0; round < 20; round++) {
+                        for (int i = 0; i < Q; i++) {
+                            if (queries[i].distanceSquaredTo(kdtree.nearest(queries[i])) != expected[i]) {
+                                wrong.incrementAndGet();
+                            }
+                        }
                     }
                 }
-            } else {
-                    // update nearest from above side
-                if (verbose) {
-                    System.out.println("above");
-                }
-                nearest(current.right, !isVertical, query, xmin, current.key.y(), xmax, ymax);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert wrong.get() == 0 : wrong.get() + " wrong nearest";
 
-                if (query.distanceTo(closestPointInOtherRectangle) < this.nearestDist) {
-                        // check below subrect as well
-                    if (verbose) {
-                        System.out.println("also check below " + current.size);
-                    }
-                    nearest(current.left, !isVertical, query, xmin, ymin, xmax, current.key.y());
-                } else {
-                    if (verbose) {
-                        System.out.println("didn't check above " + current.size);
-                    }
+        // k nearest and within a radius, against distances sorted by brute force
+        Point2D[] all = new Point2D[brute.size()];
+        int m = 0;
+        for (Point2D p : brute.range(new RectHV(0, 0, 1, 1))) {
+            all[m++] = p;
+        }
+        assert m == all.length : m;
+        for (int i = 0; i < 50; i++) {
+            Point2D query = queries[i];
+            double[] sorted = new double[all.length];
+            for (int j = 0; j < all.length; j++) {
+                sorted[j] = query.distanceSquaredTo(all[j]);
+            }
+            java.util.Arrays.sort(sorted);
+
+            for (int k : new int[] {1, 5, 100}) {
+                int j = 0;
+                for (Point2D p : kdtree.nearest(query, k)) {
+                    assert query.distanceSquaredTo(p) == sorted[j] : k + " nearest, " + j;
+                    j++;
                 }
+                assert j == Math.min(k, all.length) : j;
             }
+
+            double r = Math.sqrt(sorted[Math.min(20, all.length - 1)]);
+            int within = 0;
+            for (Point2D p : kdtree.withinRadius(query, r)) {
+                assert query.distanceSquaredTo(p) <= r * r;
+                within++;
+            }
+            int expectedWithin = 0;
+            for (Point2D p : all) {
+                if (query.distanceSquaredTo(p) <= r * r) expectedWithin++;
+            }
+            assert within == expectedWithin : within + " within radius, not " + expectedWithin;
         }
+
+        // a bulk loaded tree holds the same points, each once, and is balanced
+        Point2D[] twice = new Point2D[2 * all.length];
+        for (int j = 0; j < all.length; j++) {
+            twice[j] = all[j];
+            twice[all.length + j] = new Point2D(all[j].x(), all[j].y());
+        }
+        StdRandom.shuffle(twice);
+        KdTree balanced = new KdTree(twice);
+        assert balanced.size() == all.length : balanced.size();
+        for (Point2D p : all) {
+            assert balanced.contains(p);
+        }
+        assert balanced.height(balanced.root) <= 2 * (32 - Integer.numberOfLeadingZeros(all.length))
+            : "height " + balanced.height(balanced.root);
+        for (int i = 0; i < Q; i++) {
+            assert queries[i].distanceSquaredTo(balanced.nearest(queries[i])) == expected[i];
+        }
+        int inRange = 0;
+        for (Point2D p : balanced.range(new RectHV(0.25, 0.25, 0.75, 0.75))) inRange++;
+        int expectedInRange = 0;
+        for (Point2D p : brute.range(new RectHV(0.25, 0.25, 0.75, 0.75))) expectedInRange++;
+        assert inRange == expectedInRange : inRange;
+        assert new KdTree(new Point2D[0]).isEmpty();
+
+        // nearest does not allocate
+        long before = allocatedBytes();
+        for (int i = 0; i < Q; i++) {
+            kdtree.nearest(queries[i]);
+        }
+        long after = allocatedBytes();
+        assert before < 0 || after - before < Q : (after - before) + " bytes for " + Q + " queries";
+
+        System.out.println("Tests passed! :-)");
     }
 
-    public static void main(String[] args) {
-        // unit testing of the methods (optional)
+    public static void main(String[] args) throws InterruptedException {
+        // unit testing of the methods (optional): java KdTree input.txt
+        // checks against PointSET, with no arguments insert points by clicking
+        if (args.length > 0) {
+            test(args[0]);
+            return;
+        }
+
         RectHV rect = new RectHV(0.13, 0.05, 0.96, 0.85);
         // RectHV rect = new RectHV(0.0, 0.0, 1.0, 1.0);
         StdDraw.show(0);